@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Runs exam-start.js against the server once on platform threads and once on virtual threads,
+# then prints p99 latency per request type and the peak number of requests in flight on the
+# server (http.server.requests.active, sampled every 250 ms).
+#
+# Needs a Java 21 JDK, k6, curl, jq and the usual SPRING_DATASOURCE_* / JWT_* environment
+# (the same database is reused by both runs):
+#
+#   loadtest/compare-threading.sh            # MAX_VUS=2000 by default
+#   MAX_VUS=5000 HOLD=2m loadtest/compare-threading.sh
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8080}
+BASE_URL="http://localhost:${PORT}"
+OUT=${OUT:-target/threading-comparison}
+mkdir -p "$OUT"
+
+./mvnw -B -q -Pjava21 -DskipTests package
+JAR=$(ls target/quizserver-*.jar | grep -v original | head -n 1)
+
+wait_until_up() {
+    for _ in $(seq 1 120); do
+        if curl -sf "${BASE_URL}/actuator/health" > /dev/null 2>&1 \
+                || [ "$(curl -s -o /dev/null -w '%{http_code}' "${BASE_URL}/actuator/health")" = "401" ]; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "server did not start" >&2
+    return 1
+}
+
+# Peak of http.server.requests.active while k6 runs; needs any valid access token
+sample_active() {
+    local token=$1 peak=0 value
+    while kill -0 "$2" 2> /dev/null; do
+        value=$(curl -s -H "Authorization: Bearer ${token}" \
+            "${BASE_URL}/actuator/metrics/http.server.requests.active" \
+            | jq '[.measurements[] | select(.statistic == "ACTIVE_TASKS") | .value] | first // 0' 2> /dev/null || echo 0)
+        value=${value%.*}
+        [ "${value:-0}" -gt "$peak" ] && peak=$value
+        sleep 0.25
+    done
+    echo "$peak"
+}
+
+run_mode() {
+    local mode=$1 profiles=$2
+    echo "== ${mode}"
+    java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profiles" > "$OUT/${mode}-server.log" 2>&1 &
+    local server=$!
+    wait_until_up
+
+    local email="compare-$(date +%s)-${mode}@loadtest.local"
+    local token
+    token=$(curl -s -H 'Content-Type: application/json' -X POST "${BASE_URL}/api/auth/signup" \
+        -d "{\"email\":\"${email}\",\"password\":\"loadtest-password\",\"name\":\"compare\"}" | jq -r .accessToken)
+
+    k6 run --quiet -e BASE_URL="$BASE_URL" -e MAX_VUS="${MAX_VUS:-2000}" -e RAMP="${RAMP:-1m}" -e HOLD="${HOLD:-1m}" \
+        --summary-export "$OUT/${mode}-summary.json" loadtest/exam-start.js > "$OUT/${mode}-k6.log" 2>&1 &
+    local k6=$!
+    sample_active "$token" "$k6" > "$OUT/${mode}-active-peak.txt"
+    wait "$k6" || true
+
+    kill "$server"
+    wait "$server" 2> /dev/null || true
+}
+
+run_mode platform "${SPRING_PROFILES_ACTIVE:-default}"
+run_mode virtual "${SPRING_PROFILES_ACTIVE:+${SPRING_PROFILES_ACTIVE},}virtual-threads"
+
+printf '\n%-10s %12s %12s %12s %12s %10s %8s\n' mode login_p99 details_p99 submit_p99 peak_active errors 429s
+for mode in platform virtual; do
+    summary="$OUT/${mode}-summary.json"
+    p99() { jq -r --arg n "$1" '.metrics["http_req_duration{name:" + $n + "}"]["p(99)"] // "n/a"' "$summary"; }
+    printf '%-10s %12s %12s %12s %12s %10s %8s\n' "$mode" "$(p99 login)" "$(p99 details)" "$(p99 submit)" \
+        "$(cat "$OUT/${mode}-active-peak.txt")" \
+        "$(jq -r '.metrics.exam_server_errors.count // 0' "$summary")" \
+        "$(jq -r '.metrics.exam_throttled.count // 0' "$summary")"
+done
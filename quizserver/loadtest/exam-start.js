@@ -0,0 +1,111 @@
+// Exam-start load test (k6): many students open the same test, log in and submit at once.
+//
+// Ramps concurrent VUs up to MAX_VUS, each looping login (BCrypt), test details (cached
+// payload) and submit (DB write). Used by compare-threading.sh to compare platform and
+// virtual threads; it can also be run on its own:
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e MAX_VUS=2000 loadtest/exam-start.js
+
+import http from 'k6/http';
+import { check, fail } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '2000', 10);
+const USERS = parseInt(__ENV.USERS || '200', 10);
+const QUESTIONS = parseInt(__ENV.QUESTIONS || '20', 10);
+const PASSWORD = 'loadtest-password';
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+const OPTIONS = ['A', 'B', 'C', 'D'];
+
+const serverErrors = new Counter('exam_server_errors');
+const throttled = new Counter('exam_throttled');
+
+export const options = {
+    scenarios: {
+        examStart: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: __ENV.RAMP || '1m', target: MAX_VUS },
+                { duration: __ENV.HOLD || '1m', target: MAX_VUS },
+                { duration: '10s', target: 0 },
+            ],
+        },
+    },
+    // Per-request-type trends only show up in the summary when a threshold names them
+    summaryTrendStats: ['avg', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        exam_server_errors: ['count==0'],
+        'http_req_duration{name:login}': ['p(99)>=0'],
+        'http_req_duration{name:details}': ['p(99)>=0'],
+        'http_req_duration{name:submit}': ['p(99)>=0'],
+    },
+};
+
+export function setup() {
+    const run = Date.now();
+    const users = [];
+    for (let i = 0; i < USERS; i++) {
+        const email = `exam-${run}-${i}@loadtest.local`;
+        const res = http.post(`${BASE_URL}/api/auth/signup`,
+            JSON.stringify({ email, password: PASSWORD, name: `Exam ${i}` }), { headers: JSON_HEADERS });
+        if (res.status !== 200) {
+            fail(`signup failed: ${res.status} ${res.body}`);
+        }
+        users.push({ id: res.json('user.id'), email, token: res.json('accessToken') });
+    }
+
+    const auth = { headers: Object.assign({ Authorization: `Bearer ${users[0].token}` }, JSON_HEADERS) };
+    const test = http.post(`${BASE_URL}/api/test/create`, JSON.stringify({
+        title: `Exam start ${run}`, description: 'k6', time: 30, category: 'Loadtest',
+    }), auth);
+    if (test.status !== 200) {
+        fail(`create test failed: ${test.status} ${test.body}`);
+    }
+    const testId = test.json('id');
+
+    const questionIds = [];
+    for (let i = 0; i < QUESTIONS; i++) {
+        const question = http.post(`${BASE_URL}/api/test/question`, JSON.stringify({
+            id: testId, questionText: `Q${i}`, optionA: 'a', optionB: 'b', optionC: 'c', optionD: 'd',
+            correctOption: OPTIONS[i % 4],
+        }), auth);
+        questionIds.push(question.json('id'));
+    }
+    return { users, testId, questionIds };
+}
+
+function record(res) {
+    if (res.status >= 500) {
+        serverErrors.add(1);
+    } else if (res.status === 429) {
+        throttled.add(1);
+    }
+}
+
+export default function (data) {
+    const user = data.users[(__VU + __ITER) % data.users.length];
+
+    const login = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ email: user.email, password: PASSWORD }),
+        { headers: JSON_HEADERS, tags: { name: 'login' } });
+    record(login);
+    const token = login.status === 200 ? login.json('accessToken') : user.token;
+    const auth = Object.assign({ Authorization: `Bearer ${token}` }, JSON_HEADERS);
+
+    const details = http.get(`${BASE_URL}/api/test/${data.testId}`, { headers: auth, tags: { name: 'details' } });
+    record(details);
+
+    const submit = http.post(`${BASE_URL}/api/test/submit-test`, JSON.stringify({
+        testId: data.testId,
+        userId: user.id,
+        responses: data.questionIds.map((questionId) => ({
+            questionId,
+            selectedOption: OPTIONS[Math.floor(Math.random() * 4)],
+        })),
+    }), { headers: auth, tags: { name: 'submit' } });
+    record(submit);
+
+    check(submit, { 'submit stored or accepted': (r) => r.status === 200 || r.status === 202 || r.status === 429 });
+}
@@ -0,0 +1,87 @@
+// Parallel refresh-token rotation load test (k6).
+//
+// Every VU owns one user and fires BURST refreshes with the same token at once.
+// Exactly one of them must win the rotation (200); the others must be rejected
+// as reuse (400). Any 5xx means a lock/deadlock/constraint problem on refresh_token.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=50 -e BURST=4 loadtest/refresh-rotation.js
+
+import http from 'k6/http';
+import { check, fail } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '50', 10);
+const BURST = parseInt(__ENV.BURST || '4', 10);
+const PASSWORD = 'loadtest-password';
+const JSON_HEADERS = { headers: { 'Content-Type': 'application/json' } };
+
+const rotationWinners = new Counter('refresh_rotation_winners');
+const serverErrors = new Counter('refresh_server_errors');
+
+export const options = {
+    scenarios: {
+        refresh: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: __ENV.DURATION || '1m',
+        },
+    },
+    thresholds: {
+        refresh_server_errors: ['count==0'],
+        checks: ['rate==1'],
+        'http_req_duration{name:refresh}': ['p(95)<200'],
+    },
+};
+
+export function setup() {
+    const run = Date.now();
+    const tokens = [];
+    for (let i = 0; i < VUS; i++) {
+        const body = JSON.stringify({
+            email: `refresh-${run}-${i}@loadtest.local`,
+            password: PASSWORD,
+            name: `Refresh ${i}`,
+        });
+        const res = http.post(`${BASE_URL}/api/auth/signup`, body, JSON_HEADERS);
+        if (res.status !== 200) {
+            fail(`signup failed: ${res.status} ${res.body}`);
+        }
+        tokens.push(res.json('refreshToken'));
+    }
+    return { tokens };
+}
+
+// Per-VU state: the token currently held by this VU's user
+let current = null;
+
+export default function (data) {
+    if (current === null) {
+        current = data.tokens[__VU - 1];
+    }
+
+    const body = JSON.stringify({ refreshToken: current });
+    const requests = [];
+    for (let i = 0; i < BURST; i++) {
+        requests.push(['POST', `${BASE_URL}/api/auth/refresh`, body,
+            Object.assign({ tags: { name: 'refresh' } }, JSON_HEADERS)]);
+    }
+    const responses = http.batch(requests);
+
+    let winners = 0;
+    for (const res of responses) {
+        if (res.status >= 500) {
+            serverErrors.add(1);
+        }
+        if (res.status === 200) {
+            winners++;
+            current = res.json('refreshToken');
+        }
+    }
+    rotationWinners.add(winners);
+
+    check(responses, {
+        'exactly one refresh wins': () => winners === 1,
+        'losers are rejected with 400': (rs) => rs.every((r) => r.status === 200 || r.status === 400),
+    });
+}
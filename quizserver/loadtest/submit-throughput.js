@@ -0,0 +1,134 @@
+// Submission throughput load test (k6).
+//
+// Drives POST /api/test/submit-test at a fixed arrival rate (default 5000 req/s) against one
+// node. Meant for quiz.submissions.async.enabled=true, where a submission is answered with 202
+// once it is journaled; with the synchronous path the same script shows where it saturates.
+// Every request carries a unique submissionId, and RESEND_RATE of them are resent once with
+// the same id, so the run also checks that resends are answered without storing a second row.
+// 429s (write-behind queue full) are counted separately; a healthy run has none.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e RATE=5000 -e DURATION=1m loadtest/submit-throughput.js
+//
+// Afterwards, the number of stored rows should equal submissions_accepted:
+//   select count(*) from test_result where submission_id like '<run>-%';
+
+import http from 'k6/http';
+import { check, fail } from 'k6';
+import { Counter } from 'k6/metrics';
+import exec from 'k6/execution';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '5000', 10);
+const USERS = parseInt(__ENV.USERS || '200', 10);
+const QUESTIONS = parseInt(__ENV.QUESTIONS || '20', 10);
+const RESEND_RATE = parseFloat(__ENV.RESEND_RATE || '0.01');
+const PASSWORD = 'loadtest-password';
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+const OPTIONS = ['A', 'B', 'C', 'D'];
+
+const accepted = new Counter('submissions_accepted');
+const throttled = new Counter('submissions_throttled');
+const serverErrors = new Counter('submissions_server_errors');
+
+export const options = {
+    scenarios: {
+        submit: {
+            executor: 'constant-arrival-rate',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '1m',
+            preAllocatedVUs: parseInt(__ENV.VUS || '500', 10),
+            maxVUs: parseInt(__ENV.MAX_VUS || '2000', 10),
+        },
+    },
+    thresholds: {
+        submissions_server_errors: ['count==0'],
+        submissions_throttled: ['count==0'],
+        dropped_iterations: ['count==0'],
+        checks: ['rate==1'],
+        'http_req_duration{name:submit}': ['p(99)<100'],
+    },
+};
+
+export function setup() {
+    const run = `${Date.now()}`;
+    const users = [];
+    for (let i = 0; i < USERS; i++) {
+        const body = JSON.stringify({
+            email: `submit-${run}-${i}@loadtest.local`,
+            password: PASSWORD,
+            name: `Submit ${i}`,
+        });
+        const res = http.post(`${BASE_URL}/api/auth/signup`, body, { headers: JSON_HEADERS });
+        if (res.status !== 200) {
+            fail(`signup failed: ${res.status} ${res.body}`);
+        }
+        users.push({ id: res.json('user.id'), token: res.json('accessToken') });
+    }
+
+    const auth = { headers: Object.assign({ Authorization: `Bearer ${users[0].token}` }, JSON_HEADERS) };
+    const test = http.post(`${BASE_URL}/api/test/create`, JSON.stringify({
+        title: `Submit load ${run}`, description: 'k6', time: 30, category: 'Loadtest',
+    }), auth);
+    if (test.status !== 200) {
+        fail(`create test failed: ${test.status} ${test.body}`);
+    }
+    const testId = test.json('id');
+
+    const questionIds = [];
+    for (let i = 0; i < QUESTIONS; i++) {
+        const question = http.post(`${BASE_URL}/api/test/question`, JSON.stringify({
+            id: testId, questionText: `Q${i}`, optionA: 'a', optionB: 'b', optionC: 'c', optionD: 'd',
+            correctOption: OPTIONS[i % 4],
+        }), auth);
+        if (question.status !== 201 && question.status !== 200) {
+            fail(`add question failed: ${question.status} ${question.body}`);
+        }
+        questionIds.push(question.json('id'));
+    }
+    return { run, users, testId, questionIds };
+}
+
+function submit(data, user, submissionId) {
+    const body = JSON.stringify({
+        submissionId,
+        testId: data.testId,
+        userId: user.id,
+        responses: data.questionIds.map((questionId) => ({
+            questionId,
+            selectedOption: OPTIONS[Math.floor(Math.random() * 4)],
+        })),
+    });
+    return http.post(`${BASE_URL}/api/test/submit-test`, body, {
+        headers: Object.assign({ Authorization: `Bearer ${user.token}` }, JSON_HEADERS),
+        tags: { name: 'submit' },
+    });
+}
+
+export default function (data) {
+    const iteration = exec.scenario.iterationInTest;
+    const user = data.users[iteration % data.users.length];
+    const submissionId = `${data.run}-${iteration}`;
+
+    const res = submit(data, user, submissionId);
+    if (res.status === 429) {
+        throttled.add(1);
+        return;
+    }
+    if (res.status >= 500) {
+        serverErrors.add(1);
+    }
+    const ok = check(res, { 'submission accepted': (r) => r.status === 200 || r.status === 202 });
+    if (ok) {
+        accepted.add(1);
+    }
+
+    if (ok && Math.random() < RESEND_RATE) {
+        // Same id again, as a client would after a timeout: same score back, nothing stored twice
+        const resend = submit(data, user, submissionId);
+        check(resend, {
+            'resend answered with the first result': (r) => (r.status === 200 || r.status === 202)
+                && r.json('correctAnswers') === res.json('correctAnswers'),
+        });
+    }
+}
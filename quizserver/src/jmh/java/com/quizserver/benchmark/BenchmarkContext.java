@@ -0,0 +1,26 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.QuizserverApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the service without the web layer for benchmarks that need the real
+ * persistence stack. Uses the {@code dev} profile, so a local PostgreSQL is required
+ * (override the datasource with -Dspring.datasource.url=... in jmh.args if needed).
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(QuizserverApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dev")
+                // Spring caches off so page/detail benchmarks measure the queries, not cache hits
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN", "spring.cache.type=none")
+                .run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.dto.PageResponse;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.dto.TestDetailsDTO;
+import com.quizserver.repository.TestRepository;
+import com.quizserver.services.test.TestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog page cost on a seeded dataset of 10k tests x 50 questions.
+ * {@code legacyEntityPage} reproduces the previous entity-based mapping (1 + N queries in a
+ * read-write transaction) next to the projection-based, read-only {@code getTests} paths.
+ * Run with {@code -prof gc} to compare bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CatalogBenchmark {
+
+    static final String CATEGORY = "CatalogBenchmark";
+
+    static final int TESTS = 10_000;
+
+    static final int QUESTIONS_PER_TEST = 50;
+
+    private ConfigurableApplicationContext context;
+
+    private TestService testService;
+
+    private TestRepository testRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Long detailsTestId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        testService = context.getBean(TestService.class);
+        testRepository = context.getBean(TestRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(jdbcTemplate);
+        detailsTestId = jdbcTemplate.queryForObject(
+                "select min(id) from test where category = ?", Long.class, CATEGORY);
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate) {
+        Integer seeded = jdbcTemplate.queryForObject(
+                "select count(*) from test where category = ?", Integer.class, CATEGORY);
+        if (seeded != null && seeded >= TESTS) {
+            return;
+        }
+        jdbcTemplate.update("insert into test (title, description, time, category) "
+                + "select 'Catalog benchmark ' || g, 'Seeded test ' || g, 1, ? from generate_series(1, ?) g",
+                CATEGORY, TESTS - (seeded == null ? 0 : seeded));
+        jdbcTemplate.update("insert into question (id, question_text, option_a, option_b, option_c, option_d, correct_option, test_id) "
+                + "select nextval('question_seq'), 'Question ' || q, 'A', 'B', 'C', 'D', 'A', t.id from test t cross join generate_series(1, ?) q "
+                + "where t.category = ? and not exists (select 1 from question e where e.test_id = t.id)",
+                QUESTIONS_PER_TEST, CATEGORY);
+        jdbcTemplate.execute("analyze test");
+        jdbcTemplate.execute("analyze question");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageResponse<TestDTO> firstPage() {
+        return testService.getTests(0, 10, null, null);
+    }
+
+    @Benchmark
+    public PageResponse<TestDTO> categoryPage() {
+        return testService.getTests(50, 10, CATEGORY, null);
+    }
+
+    @Benchmark
+    public PageResponse<TestDTO> searchPage() {
+        return testService.getTests(0, 10, null, "benchmark 99");
+    }
+
+    @Benchmark
+    public TestDetailsDTO testDetails() {
+        return testService.getAllQuestionsByTest(detailsTestId);
+    }
+
+    @Benchmark
+    public List<TestDTO> legacyEntityPage() {
+        return transactionTemplate.execute(status -> testRepository.findAll(PageRequest.of(0, 10)).getContent().stream()
+                .map(test -> {
+                    TestDTO dto = test.getDto();
+                    dto.setTime(test.getQuestions().size() * test.getTime());
+                    return dto;
+                })
+                .collect(Collectors.toList()));
+    }
+}
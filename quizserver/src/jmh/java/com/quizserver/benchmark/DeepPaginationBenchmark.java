@@ -0,0 +1,81 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.dto.PageResponse;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.services.test.KeysetCursor;
+import com.quizserver.services.test.TestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page 1 vs page 10,000 (size 10) of a 100k-test category. {@code offsetPage} is the
+ * OFFSET + COUNT(*) path, whose cost grows with the page number; {@code keysetPage} seeks on
+ * (category, id) and should cost the same on both pages. {@code keysetPageWithCount} adds the
+ * cached total estimate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DeepPaginationBenchmark {
+
+    static final String CATEGORY = "PaginationBenchmark";
+
+    static final int TESTS = 100_000;
+
+    static final int PAGE_SIZE = 10;
+
+    @Param({"1", "10000"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+
+    private TestService testService;
+
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        testService = context.getBean(TestService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Integer seeded = jdbcTemplate.queryForObject(
+                "select count(*) from test where category = ?", Integer.class, CATEGORY);
+        if (seeded != null && seeded < TESTS) {
+            jdbcTemplate.update("insert into test (title, description, time, category) "
+                    + "select 'Pagination benchmark ' || g, 'Seeded test ' || g, 1, ? from generate_series(1, ?) g",
+                    CATEGORY, TESTS - seeded);
+            jdbcTemplate.execute("analyze test");
+        }
+
+        // The cursor a client holds after reading the previous page
+        cursor = page == 1 ? "" : KeysetCursor.encode(jdbcTemplate.queryForObject(
+                "select id from test where category = ? order by id offset ? limit 1",
+                Long.class, CATEGORY, (page - 1) * PAGE_SIZE - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageResponse<TestDTO> offsetPage() {
+        return testService.getTests(page - 1, PAGE_SIZE, CATEGORY, null);
+    }
+
+    @Benchmark
+    public PageResponse<TestDTO> keysetPage() {
+        return testService.getTestsAfter(cursor, PAGE_SIZE, CATEGORY, null, false);
+    }
+
+    @Benchmark
+    public PageResponse<TestDTO> keysetPageWithCount() {
+        return testService.getTestsAfter(cursor, PAGE_SIZE, CATEGORY, null, true);
+    }
+}
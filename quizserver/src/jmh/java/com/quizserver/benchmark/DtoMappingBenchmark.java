@@ -0,0 +1,102 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.dto.TestResultDTO;
+import com.quizserver.entities.Question;
+import com.quizserver.entities.Test;
+import com.quizserver.entities.TestResult;
+import com.quizserver.entities.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping through the getDto() methods, on detached entities with their
+ * associations already loaded, so only the copying and allocation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DtoMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int rowCount;
+
+    private List<Test> tests;
+
+    private List<Question> questions;
+
+    private List<TestResult> results;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("Student");
+
+        tests = new ArrayList<>(rowCount);
+        questions = new ArrayList<>(rowCount);
+        results = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            Test test = new Test();
+            test.setId((long) i);
+            test.setTitle("Mapping benchmark " + i);
+            test.setDescription("Test number " + i);
+            test.setTime(30L);
+            test.setCategory("Benchmark");
+            tests.add(test);
+
+            Question question = new Question();
+            question.setId((long) i);
+            question.setQuestionText("What is the answer to question number " + i + "?");
+            question.setOptionA("First option of question " + i);
+            question.setOptionB("Second option of question " + i);
+            question.setOptionC("Third option of question " + i);
+            question.setOptionD("Fourth option of question " + i);
+            question.setCorrectOption("ABCD".substring(i % 4, i % 4 + 1));
+            question.setTest(test);
+            questions.add(question);
+
+            TestResult result = new TestResult();
+            result.setId((long) i);
+            result.setTest(test);
+            result.setUser(user);
+            result.setTotalQuestions(rowCount);
+            result.setCorrectAnswers(i);
+            result.setPercentage(100.0 * i / rowCount);
+            results.add(result);
+        }
+    }
+
+    @Benchmark
+    public List<TestDTO> testDtos() {
+        List<TestDTO> dtos = new ArrayList<>(tests.size());
+        for (Test test : tests) {
+            dtos.add(test.getDto());
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<QuestionDTO> questionDtos() {
+        List<QuestionDTO> dtos = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            dtos.add(question.getDto());
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<TestResultDTO> testResultDtos() {
+        List<TestResultDTO> dtos = new ArrayList<>(results.size());
+        for (TestResult result : results) {
+            dtos.add(result.getDto());
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,81 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.entities.QuestionResponse;
+import com.quizserver.services.test.AnswerKey;
+import com.quizserver.services.test.PackedAnswers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of submitTest without the database: normalizing the selected options, grading N
+ * responses against a cached answer key, and packing the per-question choices for storage.
+ * Responses arrive shuffled, as clients send them in display order rather than id order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GradingBenchmark {
+
+    private static final String[] SELECTIONS = {"A", "b", " C ", "D", "", "E"};
+
+    @Param({"10", "100", "500"})
+    private int questionCount;
+
+    private AnswerKey answerKey;
+
+    private List<QuestionResponse> responses;
+
+    private String[] rawOptions;
+
+    @Setup
+    public void setUp() {
+        long[] questionIds = new long[questionCount];
+        byte[] correctOptions = new byte[questionCount];
+        for (int i = 0; i < questionCount; i++) {
+            questionIds[i] = 1_000 + 3L * i;
+            correctOptions[i] = (byte) (i % 4);
+        }
+        answerKey = new AnswerKey(1L, "Grading benchmark", questionIds, correctOptions);
+
+        // Every tenth question is left unanswered
+        responses = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            if (i % 10 == 9) {
+                continue;
+            }
+            QuestionResponse response = new QuestionResponse();
+            response.setQuestionId(questionIds[i]);
+            response.setSelectedOption(SELECTIONS[i % SELECTIONS.length]);
+            responses.add(response);
+        }
+        Collections.shuffle(responses, new Random(42));
+        rawOptions = responses.stream().map(QuestionResponse::getSelectedOption).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public void normalizeOptions(Blackhole blackhole) {
+        for (String option : rawOptions) {
+            blackhole.consume(AnswerKey.toOption(option));
+        }
+    }
+
+    @Benchmark
+    public int grade() {
+        return answerKey.grade(responses);
+    }
+
+    @Benchmark
+    public byte[] gradeAndPack() {
+        byte[] selections = new byte[answerKey.getTotalQuestions()];
+        answerKey.grade(responses, selections);
+        return PackedAnswers.pack(answerKey, selections);
+    }
+}
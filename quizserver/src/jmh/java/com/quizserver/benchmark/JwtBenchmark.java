@@ -0,0 +1,61 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.entities.User;
+import com.quizserver.enums.UserRole;
+import com.quizserver.services.auth.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of access-token generation and verification. {@code verifyRebuildingParser}
+ * reproduces the previous per-call key and parser construction for comparison.
+ * Run with {@code -prof gc} for allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtBenchmark {
+
+    static final String SECRET = "benchmark-secret-key-should-be-at-least-256-bits-long";
+
+    private JwtUtil jwtUtil;
+
+    private User user;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, "current", "", 900_000);
+        user = new User();
+        user.setEmail("student@example.com");
+        user.setRole(UserRole.USER);
+        token = jwtUtil.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return jwtUtil.extractClaims(token);
+    }
+
+    @Benchmark
+    public Claims verifyRebuildingParser() {
+        return Jwts.parser()
+                .verifyWith(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,87 @@
+package com.quizserver.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizserver.dto.PageResponse;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.dto.TestResultDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the paged responses: a catalog page (GET /api/test) and a result
+ * history page (GET /api/test/test-results/{userId}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PageResponseSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PageResponse<TestDTO> catalogPage;
+
+    private PageResponse<TestResultDTO> resultPage;
+
+    @Setup
+    public void setUp() {
+        List<TestDTO> tests = new ArrayList<>(pageSize);
+        List<TestResultDTO> results = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            TestDTO test = new TestDTO();
+            test.setId((long) i);
+            test.setTitle("Serialization benchmark " + i);
+            test.setDescription("Test number " + i + " of the catalog page");
+            test.setTime(30L);
+            test.setCategory("Benchmark");
+            tests.add(test);
+
+            TestResultDTO result = new TestResultDTO();
+            result.setId((long) i);
+            result.setTotalQuestions(40);
+            result.setCorrectAnswers(i % 41);
+            result.setPercentage(100.0 * (i % 41) / 40);
+            result.setTestName("Serialization benchmark " + i);
+            result.setUserName("Student");
+            results.add(result);
+        }
+        catalogPage = page(tests, 10_000);
+        resultPage = page(results, 500);
+    }
+
+    @Benchmark
+    public int catalogPage() throws IOException {
+        return write(catalogPage);
+    }
+
+    @Benchmark
+    public int resultPage() throws IOException {
+        return write(resultPage);
+    }
+
+    private int write(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * pageSize);
+        objectMapper.writeValue(out, value);
+        return out.size();
+    }
+
+    private <T> PageResponse<T> page(List<T> content, long totalElements) {
+        PageResponse<T> page = new PageResponse<>();
+        page.setContent(content);
+        page.setCurrentPage(0);
+        page.setPageSize(pageSize);
+        page.setTotalElements(totalElements);
+        page.setTotalPages((int) ((totalElements + pageSize - 1) / pageSize));
+        page.setLast(false);
+        return page;
+    }
+}
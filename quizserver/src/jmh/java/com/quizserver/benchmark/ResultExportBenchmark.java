@@ -0,0 +1,115 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.dto.TestDTO;
+import com.quizserver.entities.User;
+import com.quizserver.repository.UserRepository;
+import com.quizserver.services.test.TestResultExportWriter;
+import com.quizserver.services.test.TestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full export of a seeded table of 5M test results, run in a fork capped at -Xmx256m.
+ * Materializing the rows as a list cannot fit in that heap; the streaming export must
+ * complete, and the peak heap printed after each iteration should not grow with {@code rows}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class ResultExportBenchmark {
+
+    static final String CATEGORY = "ResultExportBenchmark";
+
+    @Param({"5000000"})
+    private int rows;
+
+    @Param({"NDJSON", "CSV"})
+    private TestResultExportWriter.Format format;
+
+    private ConfigurableApplicationContext context;
+
+    private TestService testService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        testService = context.getBean(TestService.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Long testId = jdbcTemplate.query("select min(id) from test where category = ?",
+                rs -> rs.next() ? (Long) rs.getObject(1, Long.class) : null, CATEGORY);
+        if (testId == null) {
+            TestDTO testDTO = new TestDTO();
+            testDTO.setTitle("Result export benchmark");
+            testDTO.setTime(1L);
+            testDTO.setCategory(CATEGORY);
+            testId = testService.createTest(testDTO).getId();
+        }
+        Integer seeded = jdbcTemplate.queryForObject(
+                "select count(*) from test_result where test_id = ?", Integer.class, testId);
+        int missing = rows - (seeded == null ? 0 : seeded);
+        if (missing > 0) {
+            User admin = context.getBean(UserRepository.class).findFirstByEmail("admin@gmail.com");
+            jdbcTemplate.update("insert into test_result (total_questions, correct_answers, percentage, test_id, user_id) "
+                    + "select 10, g % 11, (g % 11) * 10.0, ?, ? from generate_series(1, ?) g",
+                    testId, admin.getId(), missing);
+            jdbcTemplate.execute("analyze test_result");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakHeap() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        long peak = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        System.out.printf("%n[%s] peak heap (sum of pool peaks): %d MB%n", format, peak / (1024 * 1024));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingOutputStream output = new CountingOutputStream();
+        testService.exportTestResults(output, format);
+        return output.bytes;
+    }
+
+    /** Discards the export, counting bytes so the work cannot be optimized away. */
+    static final class CountingOutputStream extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.SubmitTestDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.dto.TestResultDTO;
+import com.quizserver.entities.QuestionResponse;
+import com.quizserver.entities.User;
+import com.quizserver.repository.UserRepository;
+import com.quizserver.services.test.TestService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submit latency as the number of questions grows. With the answer key loaded in a
+ * single query the per-submit cost should stay roughly flat across question counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SubmitTestBenchmark {
+
+    @Param({"10", "100", "500"})
+    private int questionCount;
+
+    private ConfigurableApplicationContext context;
+
+    private TestService testService;
+
+    private SubmitTestDTO request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        testService = context.getBean(TestService.class);
+        User admin = context.getBean(UserRepository.class).findFirstByEmail("admin@gmail.com");
+
+        TestDTO testDTO = new TestDTO();
+        testDTO.setTitle("Submit benchmark " + questionCount);
+        testDTO.setDescription("Seeded by SubmitTestBenchmark");
+        testDTO.setTime(1L);
+        testDTO.setCategory("SubmitBenchmark");
+        Long testId = testService.createTest(testDTO).getId();
+
+        List<QuestionResponse> responses = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            QuestionDTO questionDTO = new QuestionDTO();
+            questionDTO.setId(testId);
+            questionDTO.setQuestionText("Question " + i);
+            questionDTO.setOptionA("A");
+            questionDTO.setOptionB("B");
+            questionDTO.setOptionC("C");
+            questionDTO.setOptionD("D");
+            questionDTO.setCorrectOption("ABCD".substring(i % 4, i % 4 + 1));
+
+            QuestionResponse response = new QuestionResponse();
+            response.setQuestionId(testService.addQuestionToTest(questionDTO).getId());
+            response.setSelectedOption(i % 3 == 0 ? "b" : "A");
+            responses.add(response);
+        }
+
+        request = new SubmitTestDTO();
+        request.setTestId(testId);
+        request.setUserId(admin.getId());
+        request.setResponses(responses);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TestResultDTO submitTest() {
+        return testService.submitTest(request);
+    }
+}
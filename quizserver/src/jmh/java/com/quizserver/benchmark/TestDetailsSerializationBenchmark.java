@@ -0,0 +1,108 @@
+package com.quizserver.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.dto.TestDetailsDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-request cost of answering GET /api/test/{id}: serializing TestDetailsDTO with Jackson
+ * (optionally gzipping it) versus writing the pre-encoded payload bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TestDetailsSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int questionCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TestDetailsDTO details;
+
+    private byte[] cachedJson;
+
+    private byte[] cachedGzip;
+
+    @Setup
+    public void setUp() throws IOException {
+        details = testDetails(questionCount);
+        cachedJson = objectMapper.writeValueAsBytes(details);
+        cachedGzip = gzip(cachedJson);
+    }
+
+    @Benchmark
+    public int jacksonPerRequest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(cachedJson.length);
+        objectMapper.writeValue(out, details);
+        return out.size();
+    }
+
+    @Benchmark
+    public int jacksonAndGzipPerRequest() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(details)).length;
+    }
+
+    @Benchmark
+    public int cachedJson() throws IOException {
+        return write(cachedJson);
+    }
+
+    @Benchmark
+    public int cachedGzip() throws IOException {
+        return write(cachedGzip);
+    }
+
+    private static int write(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length);
+        out.write(payload);
+        return out.size();
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    static TestDetailsDTO testDetails(int questionCount) {
+        TestDTO testDTO = new TestDTO();
+        testDTO.setId(1L);
+        testDTO.setTitle("Serialization benchmark");
+        testDTO.setDescription("A test with " + questionCount + " questions");
+        testDTO.setTime((long) questionCount);
+        testDTO.setCategory("Benchmark");
+
+        List<QuestionDTO> questions = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            QuestionDTO question = new QuestionDTO();
+            question.setId((long) i);
+            question.setQuestionText("What is the answer to question number " + i + "?");
+            question.setOptionA("First option of question " + i);
+            question.setOptionB("Second option of question " + i);
+            question.setOptionC("Third option of question " + i);
+            question.setOptionD("Fourth option of question " + i);
+            question.setCorrectOption("ABCD".substring(i % 4, i % 4 + 1));
+            questions.add(question);
+        }
+
+        TestDetailsDTO details = new TestDetailsDTO();
+        details.setTestDTO(testDTO);
+        details.setQuestions(questions);
+        return details;
+    }
+}
@@ -0,0 +1,61 @@
+package com.quizserver.benchmark;
+
+import com.quizserver.services.test.TestSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the in-memory search index over 100k synthetic tests, no database needed.
+ * Every query should stay well below a millisecond; compare with the LIKE scan it replaces via
+ * {@code CatalogBenchmark.searchPage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestSearchBenchmark {
+
+    static final int TESTS = 100_000;
+
+    private static final String[] SUBJECTS = {"algebra", "geometry", "calculus", "statistics", "physics",
+            "chemistry", "biology", "history", "geography", "literature", "grammar", "vocabulary", "programming",
+            "networking", "databases", "economics", "philosophy", "astronomy", "anatomy", "music"};
+
+    private static final String[] LEVELS = {"basics", "intermediate", "advanced", "practice", "midterm",
+            "final", "review", "quiz", "challenge", "fundamentals"};
+
+    private static final String[] CATEGORIES = {"Math", "Science", "History", "Language", "Computing", "Arts"};
+
+    @Param({"geometry", "calc", "statistcs", "advanced programming", "chemistry rev"})
+    private String query;
+
+    private TestSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new TestSearchIndex(null);
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= TESTS; id++) {
+            String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+            String level = LEVELS[random.nextInt(LEVELS.length)];
+            index.put(id,
+                    subject + " " + level + " " + id,
+                    "Seeded " + level + " test about " + subject + " number " + random.nextInt(1_000),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        }
+    }
+
+    @Benchmark
+    public long[] search() {
+        return index.search(query, null);
+    }
+
+    @Benchmark
+    public long[] searchInCategory() {
+        return index.search(query, "Science");
+    }
+}
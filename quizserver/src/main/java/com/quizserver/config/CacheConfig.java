@@ -0,0 +1,18 @@
+package com.quizserver.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through caches in front of TestService. Backed by Caffeine in-process (bounded,
+ * TTL, stats) via spring.cache.* properties; any other Spring CacheManager, e.g. a shared
+ * Redis cache, can replace it without touching the service.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String TEST_PAGES = "testPages";
+
+    public static final String TEST_DETAILS = "testDetails";
+}
@@ -0,0 +1,48 @@
+package com.quizserver.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates test_content_version_seq on startup and moves it past the existing content versions.
+ * The sequence is only used by a native update, so ddl-auto never creates it; V12 does the same
+ * when applied by hand. Only ever moves the sequence forward, so it is safe with several nodes
+ * starting at once.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class ContentVersionSequenceInitializer {
+
+    private static final String CREATE_SEQUENCE = "create sequence if not exists test_content_version_seq start with 1";
+
+    private static final String ALIGN_SEQUENCE =
+            "select setval('test_content_version_seq', t.max_version) "
+                    + "from (select max(content_version) as max_version from test) t, test_content_version_seq s "
+                    + "where t.max_version >= s.last_value";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ContentVersionSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void createContentVersionSequence() {
+        jdbcTemplate.execute(CREATE_SEQUENCE);
+
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+
+        jdbcTemplate.query(ALIGN_SEQUENCE, rs -> {
+            log.info("Moved test_content_version_seq past the existing content versions to {}", rs.getLong(1));
+        });
+    }
+}
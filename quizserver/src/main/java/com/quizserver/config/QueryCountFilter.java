@@ -0,0 +1,93 @@
+package com.quizserver.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Records the number of SQL statements each request issued as the http.server.requests.queries
+ * summary, tagged like http.server.requests with method and uri template, so an N+1 regression
+ * shows up as a jump in the per-endpoint max and mean.
+ * <p>
+ * With quiz.query-count.header=true (dev and test profiles) the count is also returned in the
+ * X-Query-Count response header, stamped when the body starts being written or, for responses
+ * without a body, when the request completes.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean exposeHeader;
+
+    public QueryCountFilter(MeterRegistry meterRegistry,
+                            @Value("${quiz.query-count.header:false}") boolean exposeHeader) {
+        this.meterRegistry = meterRegistry;
+        this.exposeHeader = exposeHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            filterChain.doFilter(request, exposeHeader ? new QueryCountHeaderResponse(response) : response);
+        } finally {
+            if (exposeHeader && !response.isCommitted()) {
+                response.setIntHeader(HEADER, QueryCounter.current());
+            }
+            int queries = QueryCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("SQL statements issued per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .record(queries);
+        }
+    }
+
+    // Headers are frozen once the body is flushed, so stamp the count before handing out the stream
+    private static final class QueryCountHeaderResponse extends HttpServletResponseWrapper {
+
+        QueryCountHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            stamp();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            stamp();
+            return super.getWriter();
+        }
+
+        private void stamp() {
+            if (!isCommitted()) {
+                setIntHeader(HEADER, QueryCounter.current());
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.quizserver.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}. Registered as the session factory's statement inspector, so it sees every
+ * HQL, Criteria, native and lazy-load query, but not plain JdbcTemplate calls.
+ * <p>
+ * Also the application task executor's decorator: cache loads run there (see AnswerKeyCache),
+ * so their statements are charged to the request that triggered them.
+ */
+@Component
+public class QueryCounter implements StatementInspector, HibernatePropertiesCustomizer, TaskDecorator {
+
+    private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger count = COUNT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        return sql;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        AtomicInteger count = COUNT.get();
+        if (count == null) {
+            return runnable;
+        }
+        return () -> {
+            AtomicInteger previous = COUNT.get();
+            COUNT.set(count);
+            try {
+                runnable.run();
+            } finally {
+                if (previous != null) {
+                    COUNT.set(previous);
+                } else {
+                    COUNT.remove();
+                }
+            }
+        };
+    }
+
+    public static void start() {
+        COUNT.set(new AtomicInteger());
+    }
+
+    /**
+     * Statements counted since {@link #start()}, or 0 when counting is not active on this thread.
+     */
+    public static int current() {
+        AtomicInteger count = COUNT.get();
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Stops counting and returns the number of statements counted since {@link #start()}.
+     */
+    public static int stop() {
+        int count = current();
+        COUNT.remove();
+        return count;
+    }
+}
@@ -0,0 +1,46 @@
+package com.quizserver.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves question_seq past the existing question ids on startup. With ddl-auto=update Hibernate
+ * creates the sequence starting at 1 on a database that already has identity-generated rows, and
+ * the first batch of inserts would collide with them; V6 does the same when applied by hand.
+ * Only ever moves the sequence forward, so it is safe with several nodes starting at once.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class QuestionSequenceInitializer {
+
+    // Hibernate's pooled optimizer hands out (value - 49 .. value] for allocationSize = 50, so the
+    // sequence must end at least one allocation past the highest id
+    private static final String ALIGN_SEQUENCE =
+            "select setval('question_seq', q.max_id + 50) "
+                    + "from (select max(id) as max_id from question) q, question_seq s "
+                    + "where q.max_id >= s.last_value";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void alignQuestionSequence() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+
+        jdbcTemplate.query(ALIGN_SEQUENCE, rs -> {
+            log.info("Moved question_seq past the existing question ids to {}", rs.getLong(1));
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.quizserver.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs such as the expired refresh-token sweeper.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,33 @@
+package com.quizserver.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache metrics for Caffeine caches built outside the Spring CacheManager. Prometheus only accepts
+ * one tag key set per meter name, and Spring registers testPages/testDetails with cache, name and
+ * cache.manager; a cache tagged with cache alone would make those registrations fail. These caches
+ * therefore carry the same keys, with cache.manager=standalone.
+ */
+public final class StandaloneCacheMetrics {
+
+    public static final String CACHE_MANAGER = "standalone";
+
+    private StandaloneCacheMetrics() {
+    }
+
+    public static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name, tags(name));
+    }
+
+    public static void monitor(MeterRegistry meterRegistry, AsyncCache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name, tags(name));
+    }
+
+    private static Tags tags(String name) {
+        return Tags.of("cache.manager", CACHE_MANAGER, "name", name);
+    }
+}
@@ -2,18 +2,36 @@ package com.quizserver.controller;
 
 import com.quizserver.dto.*;
 import com.quizserver.exception.BadRequestException;
+import com.quizserver.exception.ConflictException;
+import com.quizserver.exception.ResourceNotFoundException;
+import com.quizserver.exception.TooManyRequestsException;
+import com.quizserver.services.test.ItemAnalyticsService;
+import com.quizserver.services.test.QuestionImportReader;
+import com.quizserver.services.test.TestDetailsPayloadCache;
+import com.quizserver.services.test.TestResultExportWriter;
 import com.quizserver.services.test.TestService;
+import com.quizserver.services.test.TestStatisticsService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/test")
@@ -22,9 +40,23 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class TestController {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    // Set on a capped result list when older results exist; the value is a cursor for the paged variant
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private TestService testService;
 
+    @Autowired
+    private TestDetailsPayloadCache testDetailsPayloadCache;
+
+    @Autowired
+    private TestStatisticsService testStatisticsService;
+
+    @Autowired
+    private ItemAnalyticsService itemAnalyticsService;
+
     @PostMapping("/create")
     @Operation(summary = "Create a new test", description = "Create a new test with title, description, and time limit")
     @ApiResponses(value = {
@@ -57,10 +89,44 @@ public class TestController {
         }
     }
 
+    @PostMapping(value = "/{id}/questions/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @Operation(summary = "Import questions into a test",
+            description = "Add a whole question set in one call, as a JSON array of questions or as CSV with the header "
+                    + "questionText,optionA,optionB,optionC,optionD,correctOption. All rows are validated first; "
+                    + "if any row is invalid nothing is imported and every row error is returned")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "All questions imported"),
+            @ApiResponse(responseCode = "400", description = "Test not found, or row errors (nothing imported)"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> importQuestions(@PathVariable Long id,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        QuestionImportReader.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? QuestionImportReader.Format.CSV
+                : QuestionImportReader.Format.JSON;
+        try {
+            QuestionImportResult result = testService.importQuestions(id, body, format);
+            if (!result.getErrors().isEmpty()) {
+                return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);
+            }
+            return new ResponseEntity<>(result, HttpStatus.CREATED);
+        } catch (EntityNotFoundException e) {
+            throw new BadRequestException("Test not found");
+        } catch (Exception e) {
+            throw new BadRequestException("Questions not imported, come again later");
+        }
+    }
+
     @GetMapping
-    @Operation(summary = "Get paginated tests", description = "Retrieve tests with pagination, optional category filter, and search by title")
+    @Operation(summary = "Get paginated tests",
+            description = "Retrieve tests with pagination, optional category filter, and search by title. "
+                    + "Passing cursor (empty for the first page, then nextCursor) switches to keyset pagination, "
+                    + "where count=true adds an estimated total")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Tests retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Invalid pagination parameters"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
@@ -69,9 +135,18 @@ public class TestController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean count,
+            WebRequest webRequest) {
         try {
-            PageResponse<TestDTO> tests = testService.getTests(page, size, category, search);
+            // Any test change bumps the catalog version, so an unchanged version means an unchanged page
+            if (webRequest.checkNotModified("\"catalog-" + testService.getCatalogVersion() + "\"")) {
+                return null;
+            }
+            PageResponse<TestDTO> tests = cursor != null
+                    ? testService.getTestsAfter(cursor, size, category, search, count)
+                    : testService.getTests(page, size, category, search);
             return new ResponseEntity<>(tests, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             throw new BadRequestException(e.getMessage());
@@ -84,66 +159,269 @@ public class TestController {
     @Operation(summary = "Get test details with questions", description = "Retrieve a specific test with all its questions")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Test details retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Test unchanged since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Test not found"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<?> getAllQuestions(@PathVariable Long id) {
+    public ResponseEntity<?> getAllQuestions(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) {
         try {
-            TestDetailsDTO tests = testService.getAllQuestionsByTest(id);
-            return new ResponseEntity<>(tests, HttpStatus.OK);
+            boolean gzip = acceptsGzip(acceptEncoding);
+            // Also on a 304, so shared caches keep the two encodings apart
+            servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            // Primary-key lookup of the version only; questions are not loaded for a 304.
+            // The encodings are different bytes, so each gets its own strong ETag
+            Long version = testService.getTestVersion(id);
+            if (version != null && webRequest.checkNotModified("\"" + id + "-" + version + (gzip ? "-gzip" : "") + "\"")) {
+                return null;
+            }
+
+            // Pre-encoded JSON bytes, written as-is without building the DTO graph per request
+            TestDetailsPayloadCache.Payload payload = testDetailsPayloadCache.get(id, version != null ? version : 0);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON);
+
+            if (gzip) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+            }
+            return response.body(payload.json());
         } catch (Exception e) {
             throw new BadRequestException("Could not fetch questions, come again later");
         }
     }
 
+    @GetMapping("/{id}/statistics")
+    @Operation(summary = "Get test statistics",
+            description = "Attempt count, mean, median, percentiles and score histogram of a test, "
+                    + "served from memory (may lag the latest submissions by about a second)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getTestStatistics(@PathVariable Long id) {
+        try {
+            return new ResponseEntity<>(testStatisticsService.getStatistics(id), HttpStatus.OK);
+        } catch (Exception e) {
+            throw new BadRequestException("Could not fetch statistics, come again later");
+        }
+    }
+
+    @GetMapping("/{id}/leaderboard")
+    @Operation(summary = "Get test leaderboard",
+            description = "Best result of each of the top users of a test, highest score first, earlier result first "
+                    + "on ties; served from memory (may lag the latest submissions by about a second)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Leaderboard retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getLeaderboard(@PathVariable Long id) {
+        try {
+            return new ResponseEntity<>(testStatisticsService.getLeaderboard(id), HttpStatus.OK);
+        } catch (Exception e) {
+            throw new BadRequestException("Could not fetch leaderboard, come again later");
+        }
+    }
+
+    @GetMapping("/{id}/item-analytics")
+    @Operation(summary = "Get per-question analytics of a test",
+            description = "Difficulty, answer choice distribution and discrimination of every answered question, "
+                    + "updated in the background shortly after each submission")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Analytics retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getItemAnalytics(@PathVariable Long id) {
+        try {
+            return new ResponseEntity<>(itemAnalyticsService.getTestAnalytics(id), HttpStatus.OK);
+        } catch (Exception e) {
+            throw new BadRequestException("Could not fetch analytics, come again later");
+        }
+    }
+
+    @GetMapping("/{id}/item-analytics/{questionId}")
+    @Operation(summary = "Get analytics of one question",
+            description = "Difficulty, answer choice distribution and discrimination of a single question")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Analytics retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "404", description = "No responses recorded for this question"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getQuestionAnalytics(@PathVariable Long id, @PathVariable Long questionId) {
+        QuestionAnalyticsDTO analytics;
+        try {
+            analytics = itemAnalyticsService.getQuestionAnalytics(id, questionId);
+        } catch (Exception e) {
+            throw new BadRequestException("Could not fetch analytics, come again later");
+        }
+        if (analytics == null) {
+            throw new ResourceNotFoundException("No responses recorded for this question");
+        }
+        return new ResponseEntity<>(analytics, HttpStatus.OK);
+    }
+
     @PostMapping("/submit-test")
-    @Operation(summary = "Submit test answers", description = "Submit answers for a test and receive results with score")
+    @Operation(summary = "Submit test answers", description = "Submit answers for a test and receive results with score. "
+            + "A client-generated submissionId makes resends safe: the result is stored once")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Test submitted successfully"),
+            @ApiResponse(responseCode = "202", description = "Test graded and accepted, result is stored shortly (async submissions)"),
             @ApiResponse(responseCode = "400", description = "Invalid test or user data"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "409", description = "submissionId already used by this user for another test"),
+            @ApiResponse(responseCode = "429", description = "Too many pending submissions, retry with the same submissionId"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<?> submitTest(@RequestBody SubmitTestDTO request) {
         try {
             TestResultDTO result = testService.submitTest(request);
-            return new ResponseEntity<>(result, HttpStatus.OK);
+            // No id yet: accepted by the write-behind pipeline, not stored
+            return new ResponseEntity<>(result, result.getId() != null ? HttpStatus.OK : HttpStatus.ACCEPTED);
+        } catch (TooManyRequestsException | ConflictException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
         } catch (Exception e) {
             throw new BadRequestException("Could not submit test, come again later");
         }
     }
 
+    @GetMapping(value = "/test-results", params = "format")
+    @Operation(summary = "Export all test results",
+            description = "Stream all test results as a file download, format=ndjson or format=csv. "
+                    + "Rows are written while they are read, so the export size is not limited by server memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Unknown export format"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTestResults(@RequestParam String format) {
+        TestResultExportWriter.Format exportFormat = Arrays.stream(TestResultExportWriter.Format.values())
+                .filter(f -> f.name().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unknown export format: " + format));
+
+        // Written on an async thread while rows are read; the response is never held in memory
+        StreamingResponseBody body = output -> testService.exportTestResults(output, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"test-results." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/test-results")
-    @Operation(summary = "Get all test results", description = "Retrieve all test results for all users (admin only)")
+    @Operation(summary = "Get all test results",
+            description = "Retrieve the newest test results of all users (admin only), at most quiz.results.list-limit "
+                    + "(default 1000). If there are more, the response carries an X-Next-Cursor header. Passing cursor "
+                    + "(empty for the first page, then nextCursor or X-Next-Cursor) returns newest-first pages of the "
+                    + "given size that reach every result")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Test results retrieved successfully"),
+            @ApiResponse(responseCode = "200", description = "Test results retrieved successfully", headers =
+                    @Header(name = NEXT_CURSOR_HEADER, description = "Without cursor only: present when the list was "
+                            + "cut at quiz.results.list-limit; pass it as cursor to read the older results")),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<?> getAllTestResults() {
+    public ResponseEntity<?> getAllTestResults(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<TestResultDTO> results = testService.getAllTestResults();
-            return new ResponseEntity<>(results, HttpStatus.OK);
+            if (cursor != null) {
+                return new ResponseEntity<>(testService.getTestResultsPage(cursor, size), HttpStatus.OK);
+            }
+            return truncatedList(testService.getAllTestResults());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
         } catch (Exception e) {
             throw new BadRequestException("Could not fetch test results, come again later");
         }
     }
 
     @GetMapping("/test-results/{userId}")
-    @Operation(summary = "Get test results by user", description = "Retrieve all test results for a specific user")
+    @Operation(summary = "Get test results by user",
+            description = "Retrieve the newest test results of a specific user, optionally only for one test (testId), "
+                    + "at most quiz.results.list-limit (default 1000). If there are more, the response carries an "
+                    + "X-Next-Cursor header. Passing cursor (empty for the first page, then nextCursor or X-Next-Cursor) "
+                    + "returns newest-first pages of the given size that reach every result")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Test results retrieved successfully"),
-            @ApiResponse(responseCode = "400", description = "User not found"),
+            @ApiResponse(responseCode = "200", description = "Test results retrieved successfully", headers =
+                    @Header(name = NEXT_CURSOR_HEADER, description = "Without cursor only: present when the list was "
+                            + "cut at quiz.results.list-limit; pass it as cursor to read the older results")),
+            @ApiResponse(responseCode = "400", description = "User not found, invalid cursor or page size"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<?> getAllTestResult(@PathVariable Long userId) {
+    public ResponseEntity<?> getAllTestResult(@PathVariable Long userId,
+            @RequestParam(required = false) Long testId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<TestResultDTO> results = testService.getAllTestResultsByUser(userId);
-            return new ResponseEntity<>(results, HttpStatus.OK);
+            if (cursor != null) {
+                return new ResponseEntity<>(testService.getTestResultsPageByUser(userId, testId, cursor, size),
+                        HttpStatus.OK);
+            }
+            return truncatedList(testService.getAllTestResultsByUser(userId, testId));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
         } catch (Exception e) {
             throw new BadRequestException("Could not fetch test results, come again later");
         }
     }
+
+    /**
+     * Whether the Accept-Encoding header allows gzip: listed as gzip or x-gzip, or covered by *,
+     * with a non-zero q-value. An explicit gzip entry wins over *.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        Double effective = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return effective != null && effective > 0;
+    }
+
+    // q defaults to 1; a malformed value counts as 0, i.e. not acceptable
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static ResponseEntity<List<TestResultDTO>> truncatedList(PageResponse<TestResultDTO> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
 }
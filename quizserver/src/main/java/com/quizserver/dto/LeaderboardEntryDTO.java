@@ -0,0 +1,19 @@
+package com.quizserver.dto;
+
+import lombok.Value;
+
+@Value
+public class LeaderboardEntryDTO {
+
+    int rank;
+
+    Long userId;
+
+    String userName;
+
+    Long resultId;
+
+    int correctAnswers;
+
+    double percentage;
+}
@@ -11,4 +11,7 @@ public class PageResponse<T> {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    // Cursor mode only: token for the next page, null on the last page.
+    // currentPage is then -1, and totals are -1 unless a count was requested.
+    private String nextCursor;
 }
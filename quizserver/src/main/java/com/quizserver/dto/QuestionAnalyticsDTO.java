@@ -0,0 +1,27 @@
+package com.quizserver.dto;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Item analysis of one question over the attempts that answered it. Difficulty is the share of
+ * correct responses (higher is easier). Discrimination is the point-biserial correlation between
+ * answering correctly and the attempt's score, null while it is undefined (fewer than two
+ * responses, or everyone answered the same way). choiceCounts has keys A..D and OTHER.
+ */
+@Value
+public class QuestionAnalyticsDTO {
+
+    Long questionId;
+
+    long responses;
+
+    long correctResponses;
+
+    double difficulty;
+
+    Double discrimination;
+
+    Map<String, Long> choiceCounts;
+}
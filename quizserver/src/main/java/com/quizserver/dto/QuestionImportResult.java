@@ -0,0 +1,31 @@
+package com.quizserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class QuestionImportResult {
+
+    private Long testId;
+
+    private int imported;
+
+    // Non-empty means nothing was imported
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private int row; // 1-based position in the upload, 0 for the upload as a whole
+
+        private String field;
+
+        private String message;
+    }
+}
@@ -9,6 +9,9 @@ import java.util.List;
 @Data
 public class SubmitTestDTO {
 
+    // Optional client-generated id (at most 64 characters); resending it never stores a second result
+    private String submissionId;
+
     private Long testId;
 
     private Long userId;
@@ -0,0 +1,15 @@
+package com.quizserver.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class TestItemAnalyticsDTO {
+
+    Long testId;
+
+    long attempts;
+
+    List<QuestionAnalyticsDTO> questions;
+}
@@ -1,8 +1,12 @@
 package com.quizserver.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TestResultDTO {
 
     private Long id;
@@ -0,0 +1,36 @@
+package com.quizserver.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Score statistics of one test. Percentiles and the median are nearest-rank values on
+ * whole percent points; histogram[i] counts attempts scoring [10i, 10i + 10), the last bin
+ * includes 100.
+ */
+@Value
+public class TestStatisticsDTO {
+
+    Long testId;
+
+    long attempts;
+
+    double meanPercentage;
+
+    int minPercentage;
+
+    int maxPercentage;
+
+    int medianPercentage;
+
+    int p25Percentage;
+
+    int p75Percentage;
+
+    int p90Percentage;
+
+    int p99Percentage;
+
+    List<Long> histogram;
+}
@@ -7,11 +7,14 @@ import lombok.ToString;
 import org.springframework.boot.autoconfigure.web.WebProperties;
 
 @Entity
+@Table(indexes = @Index(name = "idx_question_test_id", columnList = "test_id"))
 @Data
 public class Question {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts (bulk import)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+    @SequenceGenerator(name = "question_seq", sequenceName = "question_seq", allocationSize = 50)
     private Long id;
 
     private String questionText;
@@ -4,11 +4,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import lombok.Data;
+import lombok.ToString;
 import jakarta.persistence.*;
 
 import java.time.Instant;
 
 @Entity
+@Table(indexes = @Index(name = "idx_refresh_token_expiry_date", columnList = "expiryDate"))
 @Data
 public class RefreshToken {
 
@@ -16,11 +18,17 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Hex SHA-256 of the token; the token itself is never stored
+    @Column(name = "token_hash", nullable = false, unique = true, columnDefinition = "char(64)")
+    private String tokenHash;
+
+    // Plain token, only set on the instance handed back to the client after create/rotate
+    @Transient
+    @ToString.Exclude
     private String token;
 
     @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false, unique = true)
     private User user;
 
     @Column(nullable = false)
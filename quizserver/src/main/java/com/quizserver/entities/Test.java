@@ -9,6 +9,10 @@ import java.util.List;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_test_content_version", columnList = "content_version"),
+        @Index(name = "idx_test_category_id", columnList = "category, id")
+})
 public class Test {
 
     @Id
@@ -24,6 +28,10 @@ public class Test {
     @Column(nullable = false)
     private String category;
 
+    // Catalog-wide logical clock, bumped whenever this test or its questions change (used for ETags)
+    @Column(name = "content_version")
+    private Long contentVersion;
+
     @OneToMany(mappedBy = "test", cascade = CascadeType.ALL)
     @ToString.Exclude
     private List<Question> questions;
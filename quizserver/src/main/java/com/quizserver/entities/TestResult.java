@@ -7,6 +7,10 @@ import lombok.ToString;
 import com.quizserver.entities.Test;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_test_result_user_id_id", columnList = "user_id, id"),
+        @Index(name = "uk_test_result_user_submission_id", columnList = "user_id, submission_id", unique = true)
+})
 @Data
 public class TestResult {
 
@@ -14,12 +18,19 @@ public class TestResult {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(length = 64)
+    private String submissionId;
+
     private int totalQuestions;
 
     private int correctAnswers;
 
     private double percentage;
 
+    // Choices of this attempt in PackedAnswers format; null for results stored before it existed
+    @ToString.Exclude
+    private byte[] answers;
+
     @ManyToOne
     @JoinColumn(name = "test_id")
     @ToString.Exclude
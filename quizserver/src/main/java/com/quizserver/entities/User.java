@@ -1,12 +1,17 @@
 package com.quizserver.entities;
 
 import com.quizserver.enums.UserRole;
+import com.quizserver.services.user.UserChangeListener;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
 import lombok.ToString;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 @Data
 public class User {
     @Id
@@ -21,4 +26,26 @@ public class User {
     private String name;
 
     private UserRole role;
+
+    // Email and role as last stored, so UserChangeListener can tell when cached principals went stale
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String loadedEmail;
+
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private UserRole loadedRole;
+
+    // Entity callbacks run after the entity listeners, so UserChangeListener still sees the old values
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberStoredState() {
+        loadedEmail = email;
+        loadedRole = role;
+    }
 }
@@ -2,9 +2,23 @@ package com.quizserver.repository;
 
 import com.quizserver.entities.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
 
+    // Loads the whole answer key of a test in one query (no entity hydration)
+    @Query("select q.id as id, q.correctOption as correctOption from Question q where q.test.id = :testId order by q.id")
+    List<AnswerKeyView> findAnswerKeysByTestId(@Param("testId") Long testId);
+
+    interface AnswerKeyView {
+
+        Long getId();
+
+        String getCorrectOption();
+    }
 }
@@ -1,15 +1,58 @@
 package com.quizserver.repository;
 
 import com.quizserver.entities.RefreshToken;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
 
-    void deleteByToken(String token);
+    // Replaces the user's single token row in place; 0 means the user has no row yet
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.tokenHash = :tokenHash, r.expiryDate = :expiryDate, r.createdAt = :createdAt "
+            + "where r.user.id = :userId")
+    int replaceForUser(@Param("userId") Long userId,
+                       @Param("tokenHash") String tokenHash,
+                       @Param("expiryDate") Instant expiryDate,
+                       @Param("createdAt") Instant createdAt);
 
-    void deleteByUserId(Long userId);
+    // Compare-and-set on the old hash: of two concurrent refreshes with the same token only one matches
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken r set r.tokenHash = :newHash, r.expiryDate = :expiryDate, r.createdAt = :createdAt "
+            + "where r.id = :id and r.tokenHash = :oldHash")
+    int rotate(@Param("id") Long id,
+               @Param("oldHash") String oldHash,
+               @Param("newHash") String newHash,
+               @Param("expiryDate") Instant expiryDate,
+               @Param("createdAt") Instant createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Oldest expired rows first, walked through idx_refresh_token_expiry_date
+    @Query("select r.id from RefreshToken r where r.expiryDate < :now order by r.expiryDate")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.id in :ids and r.expiryDate < :now")
+    int deleteExpiredByIds(@Param("ids") List<Long> ids, @Param("now") Instant now);
 }
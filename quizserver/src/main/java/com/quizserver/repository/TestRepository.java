@@ -4,14 +4,132 @@ import com.quizserver.entities.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TestRepository extends JpaRepository<Test, Long> {
 
-    Page<Test> findByCategory(String category, Pageable pageable);
+    // Catalog rows with the question count computed in the same statement (no lazy loading)
+    String SUMMARY_SELECT = "select t.id as id, t.title as title, t.description as description, t.time as time, "
+            + "t.category as category, size(t.questions) as questionCount from Test t";
+
+    String CATEGORY_FILTER = " where t.category = :category";
+
+    // Substring match on the title; % and _ in the search text are escaped so they match literally
+    String TITLE_CONTAINS = "lower(t.title) like concat('%', "
+            + "replace(replace(replace(lower(:search), '!', '!!'), '%', '!%'), '_', '!_'), '%') escape '!'";
+
+    String SEARCH_FILTER = " where " + TITLE_CONTAINS;
+
+    String CATEGORY_AND_SEARCH_FILTER = CATEGORY_FILTER + " and " + TITLE_CONTAINS;
+
+    @Query("select coalesce(t.contentVersion, 0) from Test t where t.id = :id")
+    Optional<Long> findContentVersionById(@Param("id") Long id);
+
+    // Served by a backward scan of idx_test_content_version
+    @Query("select coalesce(max(t.contentVersion), 0) from Test t")
+    long findCatalogVersion();
+
+    // Moves the test past every other version, so the catalog maximum changes too. A sequence rather
+    // than max + 1, so concurrent changes never share a version (see ContentVersionSequenceInitializer)
+    @Transactional
+    @Modifying
+    @Query(value = "update test set content_version = nextval('test_content_version_seq') where id = :id", nativeQuery = true)
+    void bumpContentVersion(@Param("id") Long id);
+
+    @Query(SUMMARY_SELECT + " order by t.id")
+    List<TestSummary> findAllSummaries();
+
+    @Query(value = SUMMARY_SELECT + " order by t.id",
+            countQuery = "select count(t) from Test t")
+    Page<TestSummary> findSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + CATEGORY_FILTER + " order by t.id",
+            countQuery = "select count(t) from Test t" + CATEGORY_FILTER)
+    Page<TestSummary> findSummariesByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + SEARCH_FILTER + " order by t.id",
+            countQuery = "select count(t) from Test t" + SEARCH_FILTER)
+    Page<TestSummary> findSummariesByTitle(@Param("search") String search, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + CATEGORY_AND_SEARCH_FILTER + " order by t.id",
+            countQuery = "select count(t) from Test t" + CATEGORY_AND_SEARCH_FILTER)
+    Page<TestSummary> findSummariesByCategoryAndTitle(@Param("category") String category,
+                                                     @Param("search") String search,
+                                                     Pageable pageable);
+
+    // Keyset pages: seek past the last id seen instead of OFFSET; pass PageRequest.of(0, limit), no count is run
+    @Query(SUMMARY_SELECT + " where t.id > :afterId order by t.id")
+    List<TestSummary> findSummariesAfter(@Param("afterId") long afterId, Pageable limit);
+
+    // Range scan of idx_test_category_id on (category, id)
+    @Query(SUMMARY_SELECT + CATEGORY_FILTER + " and t.id > :afterId order by t.id")
+    List<TestSummary> findSummariesByCategoryAfter(@Param("category") String category,
+                                                   @Param("afterId") long afterId,
+                                                   Pageable limit);
+
+    @Query(SUMMARY_SELECT + SEARCH_FILTER + " and t.id > :afterId order by t.id")
+    List<TestSummary> findSummariesByTitleAfter(@Param("search") String search,
+                                                @Param("afterId") long afterId,
+                                                Pageable limit);
+
+    @Query(SUMMARY_SELECT + CATEGORY_AND_SEARCH_FILTER + " and t.id > :afterId order by t.id")
+    List<TestSummary> findSummariesByCategoryAndTitleAfter(@Param("category") String category,
+                                                          @Param("search") String search,
+                                                          @Param("afterId") long afterId,
+                                                          Pageable limit);
+
+    // Page rows for ids ranked by the search index; the caller restores the ranking order
+    @Query(SUMMARY_SELECT + " where t.id in :ids")
+    List<TestSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.id as id, t.title as title, t.description as description, t.category as category from Test t")
+    List<SearchDocument> findAllSearchDocuments();
+
+    // Tests created or changed since the given catalog version, for refreshing the search index
+    @Query("select t.id as id, t.title as title, t.description as description, t.category as category "
+            + "from Test t where t.contentVersion > :version")
+    List<SearchDocument> findSearchDocumentsChangedAfter(@Param("version") long version);
+
+    long countByCategory(String category);
+
+    @Query("select count(t) from Test t" + SEARCH_FILTER)
+    long countByTitle(@Param("search") String search);
+
+    @Query("select count(t) from Test t" + CATEGORY_AND_SEARCH_FILTER)
+    long countByCategoryAndTitle(@Param("category") String category, @Param("search") String search);
+
+    interface TestSummary {
+
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+
+        Long getTime();
+
+        String getCategory();
+
+        long getQuestionCount();
+    }
+
+    interface SearchDocument {
+
+        Long getId();
+
+        String getTitle();
 
-    Page<Test> findByTitleContainingIgnoreCase(String search, Pageable pageable);
+        String getDescription();
 
-    Page<Test> findByCategoryAndTitleContainingIgnoreCase(String category, String search, Pageable pageable);
+        String getCategory();
+    }
 }
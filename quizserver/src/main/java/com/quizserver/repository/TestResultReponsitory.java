@@ -2,13 +2,108 @@ package com.quizserver.repository;
 
 import com.quizserver.dto.TestResultDTO;
 import com.quizserver.entities.TestResult;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TestResultReponsitory extends JpaRepository<TestResult, Long> {
 
-    List<TestResult> findAllByUserId(Long userId);
+    // Test title and user name joined in the same statement; no entities, so nothing to lazy-load per row
+    String RESULT_DTO = "select new com.quizserver.dto.TestResultDTO("
+            + "r.id, r.totalQuestions, r.correctAnswers, r.percentage, t.title, u.name) "
+            + "from TestResult r left join r.test t left join r.user u";
+
+    // Newest-first keyset pages: pass Long.MAX_VALUE for the first page and PageRequest.of(0, limit)
+    @Query(RESULT_DTO + " where r.id < :beforeId order by r.id desc")
+    List<TestResultDTO> findResultsBefore(@Param("beforeId") long beforeId, Pageable limit);
+
+    // Backward range scan of (user_id, id): reads only the rows of the page. The user filter turns the
+    // user join into an inner one on user_id, so idx_test_result_user_id_id drives the scan
+    @Query(RESULT_DTO + " where r.user.id = :userId and r.id < :beforeId order by r.id desc")
+    List<TestResultDTO> findResultsByUserIdBefore(@Param("userId") Long userId,
+                                                  @Param("beforeId") long beforeId,
+                                                  Pageable limit);
+
+    @Query(RESULT_DTO + " where r.user.id = :userId and r.test.id = :testId and r.id < :beforeId order by r.id desc")
+    List<TestResultDTO> findResultsByUserIdAndTestIdBefore(@Param("userId") Long userId,
+                                                           @Param("testId") Long testId,
+                                                           @Param("beforeId") long beforeId,
+                                                           Pageable limit);
+
+    /**
+     * Server-side cursor over all results; must be consumed and closed inside a transaction.
+     * With PostgreSQL the fetch size only takes effect there (autocommit off), keeping at most
+     * one fetch of rows in memory at a time.
+     */
+    @Query(RESULT_DTO + " order by r.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<TestResultDTO> streamAllResults();
+
+    // Looked up by the unique (user_id, submission_id) key; the test tells a resend from a reused id
+    @Query("select r.test.id from TestResult r where r.user.id = :userId and r.submissionId = :submissionId")
+    Optional<Long> findTestIdBySubmissionId(@Param("userId") Long userId, @Param("submissionId") String submissionId);
+
+    @Query(RESULT_DTO + " where r.user.id = :userId and r.test.id = :testId and r.submissionId = :submissionId")
+    Optional<TestResultDTO> findResultBySubmissionId(@Param("userId") Long userId, @Param("testId") Long testId,
+                                                     @Param("submissionId") String submissionId);
+
+    // Replay source for the in-memory statistics; must be consumed inside a transaction
+    @Query("select r.id as id, r.test.id as testId, u.id as userId, u.name as userName, "
+            + "r.correctAnswers as correctAnswers, r.percentage as percentage "
+            + "from TestResult r left join r.user u order by r.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<ScoreRow> streamScores();
+
+    interface ScoreRow {
+
+        Long getId();
+
+        Long getTestId();
+
+        Long getUserId();
+
+        String getUserName();
+
+        int getCorrectAnswers();
+
+        double getPercentage();
+    }
+
+    // Replay source for item analytics; must be consumed inside a transaction
+    @Query("select r.id as id, r.test.id as testId, r.percentage as percentage, r.answers as answers "
+            + "from TestResult r where r.answers is not null order by r.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<AnswersRow> streamAnswers();
+
+    interface AnswersRow {
+
+        Long getId();
+
+        Long getTestId();
+
+        double getPercentage();
+
+        byte[] getAnswers();
+    }
 }
@@ -0,0 +1,78 @@
+package com.quizserver.services.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.quizserver.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-window limit of failed login/signup attempts, checked before any hashing is done.
+ * Failures are counted per account whatever address they come from, so rotating the source
+ * address does not reset the guesses against one account. A second, optional limit counts the
+ * failures of each client address over all accounts (max-attempts-per-address, 0 = off).
+ * {@link #check} reserves an attempt on both (so a burst of concurrent guesses cannot slip past
+ * the limit) and {@link #succeeded} hands it back, so only failures accumulate: a user who logs
+ * in often is never throttled.
+ */
+@Component
+public class AuthAttemptThrottle {
+
+    private final int maxAttempts;
+
+    private final int maxAttemptsPerAddress;
+
+    private final Cache<String, AtomicInteger> attempts;
+
+    private final Cache<String, AtomicInteger> addressAttempts;
+
+    public AuthAttemptThrottle(@Value("${security.auth-throttle.max-attempts:10}") int maxAttempts,
+                               @Value("${security.auth-throttle.max-attempts-per-address:0}") int maxAttemptsPerAddress,
+                               @Value("${security.auth-throttle.window:1m}") Duration window) {
+        this.maxAttempts = maxAttempts;
+        this.maxAttemptsPerAddress = maxAttemptsPerAddress;
+        // The window starts at the first attempt and is not extended by later ones
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfter(Expiry.creating((String key, AtomicInteger count) -> window))
+                .build();
+        this.addressAttempts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfter(Expiry.creating((String key, AtomicInteger count) -> window))
+                .build();
+    }
+
+    public void check(String email, String clientAddress) {
+        if (maxAttemptsPerAddress > 0
+                && addressAttempts.get(address(clientAddress), k -> new AtomicInteger()).incrementAndGet() > maxAttemptsPerAddress) {
+            throw new TooManyRequestsException("Too many attempts from this address, please retry later");
+        }
+        if (attempts.get(account(email), k -> new AtomicInteger()).incrementAndGet() > maxAttempts) {
+            throw new TooManyRequestsException("Too many attempts for this account, please retry later");
+        }
+    }
+
+    public void succeeded(String email, String clientAddress) {
+        attempts.invalidate(account(email));
+        if (maxAttemptsPerAddress > 0) {
+            // Only this attempt is handed back: other accounts' failures from the address still count
+            AtomicInteger count = addressAttempts.getIfPresent(address(clientAddress));
+            if (count != null) {
+                count.updateAndGet(n -> Math.max(0, n - 1));
+            }
+        }
+    }
+
+    private static String account(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String address(String clientAddress) {
+        return clientAddress == null ? "" : clientAddress;
+    }
+}
@@ -10,18 +10,20 @@ public interface AuthService {
     /**
      * Register a new user
      * 
-     * @param request Signup request with email, password, and name
+     * @param request       Signup request with email, password, and name
+     * @param clientAddress Address of the caller, used to throttle failed attempts
      * @return AuthResponse with access token, refresh token, and user info
      */
-    AuthResponse signup(SignupRequest request);
+    AuthResponse signup(SignupRequest request, String clientAddress);
 
     /**
      * Authenticate user and generate tokens
      * 
-     * @param request Login request with email and password
+     * @param request       Login request with email and password
+     * @param clientAddress Address of the caller, used to throttle failed attempts
      * @return AuthResponse with access token, refresh token, and user info
      */
-    AuthResponse login(LoginRequest request);
+    AuthResponse login(LoginRequest request, String clientAddress);
 
     /**
      * Refresh access token using refresh token
@@ -32,9 +34,10 @@ public interface AuthService {
     TokenResponse refreshToken(String refreshToken);
 
     /**
-     * Logout user by invalidating refresh token
+     * Logout user by invalidating refresh token and revoking the current access token
      * 
      * @param refreshToken The refresh token to invalidate
+     * @param accessToken  The access token to revoke, may be null
      */
-    void logout(String refreshToken);
+    void logout(String refreshToken, String accessToken);
 }
@@ -7,28 +7,31 @@ import com.quizserver.enums.UserRole;
 import com.quizserver.exception.BadRequestException;
 import com.quizserver.exception.UnauthorizedException;
 import com.quizserver.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final AuthAttemptThrottle authAttemptThrottle;
     private final JwtUtil jwtUtil;
     private final RefreshTokenService refreshTokenService;
-    private final AuthenticationManager authenticationManager;
+    private final AuthenticatedTokenCache tokenCache;
+    private final TransactionTemplate transactionTemplate;
 
+    private volatile String dummyPasswordHash;
+
+    // Not @Transactional: no connection is held while the password waits for the hashing pool;
+    // only the two writes share a transaction
     @Override
-    @Transactional
-    public AuthResponse signup(SignupRequest request) {
+    public AuthResponse signup(SignupRequest request, String clientAddress) {
+        authAttemptThrottle.check(request.getEmail(), clientAddress);
+
         // Check if user already exists
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
             throw new BadRequestException("User with this email already exists");
@@ -37,16 +40,18 @@ public class AuthServiceImpl implements AuthService {
         // Create new user
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setName(request.getName());
         user.setRole(UserRole.USER);
 
-        // Save user
-        User savedUser = userRepository.save(user);
+        // Save user and its first session atomically, so a failed session never leaves an orphan account
+        RefreshToken refreshToken = transactionTemplate.execute(status ->
+                refreshTokenService.createRefreshToken(userRepository.save(user)));
+        User savedUser = refreshToken.getUser();
+        authAttemptThrottle.succeeded(request.getEmail(), clientAddress);
 
         // Generate tokens
         String accessToken = jwtUtil.generateAccessToken(savedUser);
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(savedUser);
 
         // Build response
         UserDTO userDTO = new UserDTO();
@@ -57,55 +62,75 @@ public class AuthServiceImpl implements AuthService {
         return new AuthResponse(accessToken, refreshToken.getToken(), userDTO);
     }
 
+    // Not @Transactional: no connection is held while the password waits for the hashing pool
     @Override
-    @Transactional
-    public AuthResponse login(LoginRequest request) {
-        try {
-            // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()));
-
-            // Get user from database
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new UnauthorizedException("Invalid email or password"));
-
-            // Generate tokens
-            String accessToken = jwtUtil.generateAccessToken(user);
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
-
-            // Build response
-            UserDTO userDTO = new UserDTO();
-            userDTO.setId(user.getId());
-            userDTO.setEmail(user.getEmail());
-            userDTO.setName(user.getName());
-
-            return new AuthResponse(accessToken, refreshToken.getToken(), userDTO);
-
-        } catch (AuthenticationException e) {
+    public AuthResponse login(LoginRequest request, String clientAddress) {
+        authAttemptThrottle.check(request.getEmail(), clientAddress);
+
+        // Get user from database
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+
+        // Verify password on the hashing pool; unknown emails are checked against a dummy
+        // hash so they take as long as a wrong password
+        String encodedPassword = user != null ? user.getPassword() : dummyPasswordHash();
+        if (!passwordHashingService.matches(request.getPassword(), encodedPassword) || user == null) {
             throw new UnauthorizedException("Invalid email or password");
         }
+        authAttemptThrottle.succeeded(request.getEmail(), clientAddress);
+
+        // Re-hash transparently when the configured BCrypt strength was raised
+        if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(request.getPassword()));
+            userRepository.save(user);
+        }
+
+        // Generate tokens
+        String accessToken = jwtUtil.generateAccessToken(user);
+        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+
+        // Build response
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(user.getId());
+        userDTO.setEmail(user.getEmail());
+        userDTO.setName(user.getName());
+
+        return new AuthResponse(accessToken, refreshToken.getToken(), userDTO);
+    }
+
+    private String dummyPasswordHash() {
+        String hash = dummyPasswordHash;
+        if (hash == null) {
+            hash = passwordHashingService.encode("dummy-password-for-timing-protection");
+            dummyPasswordHash = hash;
+        }
+        return hash;
     }
 
     @Override
-    @Transactional
     public TokenResponse refreshToken(String refreshToken) {
         // Verify refresh token
         RefreshToken verifiedToken = refreshTokenService.verifyRefreshToken(refreshToken);
         User user = verifiedToken.getUser();
 
-        // Generate new tokens
+        // Generate new tokens; rotation is a single conditional update of the user's row
+        RefreshToken newRefreshToken = refreshTokenService.rotateRefreshToken(verifiedToken);
         String newAccessToken = jwtUtil.generateAccessToken(user);
-        RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user);
 
         return new TokenResponse(newAccessToken, newRefreshToken.getToken());
     }
 
     @Override
-    @Transactional
-    public void logout(String refreshToken) {
+    public void logout(String refreshToken, String accessToken) {
         // Delete refresh token from database
         refreshTokenService.deleteByToken(refreshToken);
+
+        // Revoke the access token until it expires
+        if (accessToken != null) {
+            try {
+                tokenCache.revoke(accessToken, jwtUtil.extractClaims(accessToken).getExpiration());
+            } catch (JwtException e) {
+                // Already invalid or expired, nothing to revoke
+            }
+        }
     }
 }
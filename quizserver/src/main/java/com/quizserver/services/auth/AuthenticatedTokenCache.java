@@ -0,0 +1,108 @@
+package com.quizserver.services.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.quizserver.config.StandaloneCacheMetrics;
+import com.quizserver.services.user.UserPrincipalChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verified access tokens mapped to their principal, so a repeated token costs neither a
+ * signature check nor a user lookup. Every entry expires together with its token. Revoked
+ * tokens are remembered until they would have expired anyway; that set has no size bound, since
+ * evicting a revocation would make a logged-out token valid again. Principals of a user are
+ * dropped once a change to their email or role, or their deletion, has committed.
+ * State is per instance: revocation is not shared between nodes.
+ */
+@Component
+public class AuthenticatedTokenCache {
+
+    private final Cache<String, Entry> verified;
+
+    private final Cache<String, Long> revoked;
+
+    // Bumped by every evictUser, so a principal loaded before an eviction is never cached after it
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthenticatedTokenCache(MeterRegistry meterRegistry,
+                                   @Value("${jwt.cache.max-size:100000}") long maxSize) {
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.writing((String token, Entry entry) -> untilExpiry(entry.expiresAt())))
+                .recordStats()
+                .build();
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(Expiry.writing((String token, Long expiresAt) -> untilExpiry(expiresAt)))
+                .build();
+        StandaloneCacheMetrics.monitor(meterRegistry, verified, "verifiedTokens");
+    }
+
+    public UserDetails get(String token) {
+        Entry entry = verified.getIfPresent(token);
+        return entry != null ? entry.userDetails() : null;
+    }
+
+    /**
+     * Current eviction generation; read it before loading the principal that is passed to put().
+     */
+    public long generation() {
+        return evictions.get();
+    }
+
+    /**
+     * Cache a principal loaded at the given generation. Skipped, or undone, if a user was evicted
+     * since: the principal may have been read from a row that a now committed change replaced.
+     */
+    public void put(String token, UserDetails userDetails, Date expiration, long generation) {
+        if (isRevoked(token) || generation != evictions.get()) {
+            return;
+        }
+        verified.put(token, new Entry(userDetails, expiration.getTime()));
+        if (generation != evictions.get()) {
+            verified.invalidate(token);
+        }
+    }
+
+    public boolean isRevoked(String token) {
+        return revoked.getIfPresent(token) != null;
+    }
+
+    /**
+     * Reject this token from now on, e.g. on logout.
+     */
+    public void revoke(String token, Date expiration) {
+        revoked.put(token, expiration.getTime());
+        verified.invalidate(token);
+    }
+
+    /**
+     * Drop cached principals of a user so the next request reloads them, e.g. after a profile change.
+     */
+    public void evictUser(String username) {
+        evictions.incrementAndGet();
+        verified.asMap().values().removeIf(entry -> entry.userDetails().getUsername().equals(username));
+    }
+
+    // After commit: evicting earlier would let a concurrent request re-cache the old row
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        evictUser(event.email());
+    }
+
+    private static Duration untilExpiry(long expiresAt) {
+        return Duration.ofMillis(Math.max(0, expiresAt - System.currentTimeMillis()));
+    }
+
+    private record Entry(UserDetails userDetails, long expiresAt) {
+    }
+}
@@ -1,9 +1,12 @@
 package com.quizserver.services.auth;
 
 import com.quizserver.entities.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -12,46 +15,85 @@ import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Issues and verifies access tokens. Keys and the parser are built once and shared, since
+ * both are immutable and thread-safe.
+ * Tokens are signed with the current key and carry its id in the "kid" header. Keys listed in
+ * jwt.previous-keys ("kid:secret,kid:secret") are still accepted for verification, so the
+ * secret can be rotated without invalidating tokens already issued.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+    private final long ACCESS_TOKEN_EXPIRATION;
 
-    @Value("${jwt.access.expiration}")
-    private long ACCESS_TOKEN_EXPIRATION;
+    private final String signingKeyId;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = SECRET_KEY.getBytes(StandardCharsets.UTF_8);
-        return new SecretKeySpec(keyBytes, "HmacSHA256");
+    private final SecretKey signingKey;
+
+    private final Map<String, SecretKey> verificationKeys = new HashMap<>();
+
+    private final JwtParser parser;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.key-id:default}") String keyId,
+                   @Value("${jwt.previous-keys:}") String previousKeys,
+                   @Value("${jwt.access.expiration}") long accessTokenExpiration) {
+        this.ACCESS_TOKEN_EXPIRATION = accessTokenExpiration;
+        this.signingKeyId = keyId;
+        this.signingKey = toKey(secret);
+        this.verificationKeys.put(keyId, signingKey);
+
+        for (String entry : previousKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("jwt.previous-keys entries must look like kid:secret");
+            }
+            verificationKeys.putIfAbsent(entry.substring(0, separator).trim(), toKey(entry.substring(separator + 1).trim()));
+        }
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        // Tokens issued before key ids were introduced have no kid
+                        if (header.getKeyId() == null) {
+                            return signingKey;
+                        }
+                        SecretKey key = verificationKeys.get(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    private static SecretKey toKey(String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
     }
 
     public String generateAccessToken(User user) {
         long now = System.currentTimeMillis();
         return Jwts.builder()
+                .header().keyId(signingKeyId).and()
                 .subject(user.getEmail())
                 .claim("role", user.getRole().name())
                 .issuedAt(new Date(now))
                 .expiration(new Date(now + ACCESS_TOKEN_EXPIRATION))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    // Throws JwtException when the signature is invalid or the token has expired
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String email = extractClaims(token).getSubject();
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
@@ -13,6 +13,15 @@ public interface RefreshTokenService {
      */
     RefreshToken createRefreshToken(User user);
 
+    /**
+     * Replace the given, already verified refresh token with a new one.
+     * Fails if the token was rotated concurrently.
+     * 
+     * @param current The verified refresh token
+     * @return The new refresh token
+     */
+    RefreshToken rotateRefreshToken(RefreshToken current);
+
     /**
      * Verify if the refresh token is valid and not expired
      * 
@@ -4,42 +4,90 @@ import com.quizserver.entities.RefreshToken;
 import com.quizserver.entities.User;
 import com.quizserver.exception.BadRequestException;
 import com.quizserver.repository.RefreshTokenRepository;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.Base64;
+import java.util.HexFormat;
 
+/**
+ * One refresh-token row per user, rotated in place. Only a SHA-256 hash of the token is stored.
+ * Methods are not @Transactional on purpose: every write is a single statement running in its
+ * own short transaction, so no row lock is held across statements and concurrent refreshes
+ * cannot deadlock.
+ */
 @Service
-@RequiredArgsConstructor
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final RefreshTokenRepository refreshTokenRepository;
 
+    private final TransactionTemplate newTransaction;
+
     @Value("${jwt.refresh.expiration}")
     private long REFRESH_TOKEN_EXPIRATION;
 
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     @Override
-    @Transactional
     public RefreshToken createRefreshToken(User user) {
-        // Delete existing refresh token for this user if any
-        refreshTokenRepository.deleteByUserId(user.getId());
-        refreshTokenRepository.flush();
+        String token = newToken();
+        String tokenHash = hash(token);
+        Instant now = Instant.now();
+        Instant expiryDate = now.plusMillis(REFRESH_TOKEN_EXPIRATION);
 
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setCreatedAt(Instant.now());
-        refreshToken.setExpiryDate(Instant.now().plusMillis(REFRESH_TOKEN_EXPIRATION));
+        // Steady state is one UPDATE of the user's existing row
+        if (refreshTokenRepository.replaceForUser(user.getId(), tokenHash, expiryDate, now) == 0) {
+            RefreshToken refreshToken = new RefreshToken();
+            refreshToken.setUser(user);
+            refreshToken.setTokenHash(tokenHash);
+            refreshToken.setCreatedAt(now);
+            refreshToken.setExpiryDate(expiryDate);
+            try {
+                refreshTokenRepository.save(refreshToken);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent login inserted the row first; take it over. The failed flush leaves
+                // the current session unusable, so the update runs in a transaction of its own
+                newTransaction.executeWithoutResult(status ->
+                        refreshTokenRepository.replaceForUser(user.getId(), tokenHash, expiryDate, now));
+            }
+        }
+
+        return issued(user, token, tokenHash, expiryDate, now);
+    }
+
+    @Override
+    public RefreshToken rotateRefreshToken(RefreshToken current) {
+        String token = newToken();
+        String tokenHash = hash(token);
+        Instant now = Instant.now();
+        Instant expiryDate = now.plusMillis(REFRESH_TOKEN_EXPIRATION);
 
-        return refreshTokenRepository.save(refreshToken);
+        if (refreshTokenRepository.rotate(current.getId(), current.getTokenHash(), tokenHash, expiryDate, now) == 0) {
+            throw new BadRequestException("Refresh token has already been used");
+        }
+
+        return issued(current.getUser(), token, tokenHash, expiryDate, now);
     }
 
     @Override
     public RefreshToken verifyRefreshToken(String token) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
                 .orElseThrow(() -> new BadRequestException("Invalid refresh token"));
 
         if (refreshToken.getExpiryDate().isBefore(Instant.now())) {
@@ -51,14 +99,37 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     }
 
     @Override
-    @Transactional
     public void deleteByToken(String token) {
-        refreshTokenRepository.deleteByToken(token);
+        refreshTokenRepository.deleteByTokenHash(hash(token));
     }
 
     @Override
-    @Transactional
     public void deleteByUser(User user) {
         refreshTokenRepository.deleteByUserId(user.getId());
     }
+
+    private static RefreshToken issued(User user, String token, String tokenHash, Instant expiryDate, Instant createdAt) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(user);
+        refreshToken.setToken(token);
+        refreshToken.setTokenHash(tokenHash);
+        refreshToken.setExpiryDate(expiryDate);
+        refreshToken.setCreatedAt(createdAt);
+        return refreshToken;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package com.quizserver.services.auth;
+
+import com.quizserver.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes expired refresh tokens in the background. Each batch selects at most batch-size ids
+ * through the expiry_date index and deletes them in its own short transaction, so row locks
+ * are held only for one small delete and a login touching the same user waits at most that long.
+ * Exports auth.refresh_tokens.swept (rows deleted) and auth.refresh_tokens.sweep (run time).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "security.refresh-token-sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenSweeper {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final int batchSize;
+
+    private final int maxBatches;
+
+    private final Counter sweptCounter;
+
+    private final Timer sweepTimer;
+
+    public RefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.refresh-token-sweeper.batch-size:500}") int batchSize,
+                               @Value("${security.refresh-token-sweeper.max-batches:100}") int maxBatches) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.sweptCounter = Counter.builder("auth.refresh_tokens.swept")
+                .description("Expired refresh tokens deleted by the sweeper")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("auth.refresh_tokens.sweep")
+                .description("Time spent per sweeper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${security.refresh-token-sweeper.initial-delay-ms:60000}",
+            fixedDelayString = "${security.refresh-token-sweeper.interval-ms:600000}")
+    public void sweep() {
+        int deleted = sweepTimer.record(this::sweepExpired);
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    /**
+     * Runs up to max-batches batches and returns the number of rows deleted.
+     * Stops early once a batch comes back smaller than batch-size.
+     */
+    int sweepExpired() {
+        Instant now = Instant.now();
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> ids = refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            // Re-checks the expiry so a row renewed by a login in between is kept
+            int deleted = refreshTokenRepository.deleteExpiredByIds(ids, now);
+            sweptCounter.increment(deleted);
+            total += deleted;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
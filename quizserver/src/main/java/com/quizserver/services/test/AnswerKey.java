@@ -0,0 +1,125 @@
+package com.quizserver.services.test;
+
+import com.quizserver.entities.QuestionResponse;
+import jakarta.persistence.EntityNotFoundException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, pre-normalized answer key of a single test.
+ * Question ids are kept sorted so a response is resolved with a binary search, and the
+ * correct option of every question is stored as one byte (0..3 for A..D).
+ */
+public final class AnswerKey {
+
+    public static final byte NO_OPTION = -1;
+
+    public static final byte UNANSWERED = -2;
+
+    private final Long testId;
+
+    private final String testTitle;
+
+    private final long[] questionIds;
+
+    private final byte[] correctOptions;
+
+    public AnswerKey(Long testId, String testTitle, long[] questionIds, byte[] correctOptions) {
+        this.testId = testId;
+        this.testTitle = testTitle;
+        this.questionIds = questionIds;
+        this.correctOptions = correctOptions;
+    }
+
+    public Long getTestId() {
+        return testId;
+    }
+
+    public String getTestTitle() {
+        return testTitle;
+    }
+
+    public int getTotalQuestions() {
+        return questionIds.length;
+    }
+
+    public long[] getQuestionIds() {
+        return questionIds.clone();
+    }
+
+    public int indexOf(Long questionId) {
+        if (questionId == null) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(questionIds, questionId);
+        return index < 0 ? -1 : index;
+    }
+
+    public byte correctOptionAt(int index) {
+        return correctOptions[index];
+    }
+
+    public long questionIdAt(int index) {
+        return questionIds[index];
+    }
+
+    /**
+     * Count correct responses. Rejects questions that do not belong to this test and
+     * questions answered more than once.
+     */
+    public int grade(List<QuestionResponse> responses) {
+        return grade(responses, null);
+    }
+
+    /**
+     * Same as {@link #grade(List)}, additionally storing the normalized choice of each question
+     * into {@code selections} by question index: 0..3, NO_OPTION for anything other than A..D,
+     * and UNANSWERED for questions without a response.
+     */
+    public int grade(List<QuestionResponse> responses, byte[] selections) {
+        boolean[] answered = new boolean[questionIds.length];
+        int correctAnswers = 0;
+        if (selections != null) {
+            Arrays.fill(selections, UNANSWERED);
+        }
+
+        for (QuestionResponse response : responses) {
+            int index = indexOf(response.getQuestionId());
+            if (index < 0) {
+                throw new EntityNotFoundException(
+                        "Question not found with ID: " + response.getQuestionId() + " in test " + testId);
+            }
+            if (answered[index]) {
+                throw new IllegalArgumentException("Duplicate response for question ID: " + response.getQuestionId());
+            }
+            answered[index] = true;
+
+            byte selected = toOption(response.getSelectedOption());
+            if (selections != null) {
+                selections[index] = selected;
+            }
+            byte correct = correctOptions[index];
+            if (correct != NO_OPTION && correct == selected) {
+                correctAnswers++;
+            }
+        }
+
+        return correctAnswers;
+    }
+
+    /**
+     * Normalize "A".."D" (any case, surrounding whitespace allowed) to 0..3, anything else to NO_OPTION.
+     */
+    public static byte toOption(String value) {
+        if (value == null) {
+            return NO_OPTION;
+        }
+        String v = value.trim();
+        if (v.length() != 1) {
+            return NO_OPTION;
+        }
+        char c = Character.toUpperCase(v.charAt(0));
+        return c >= 'A' && c <= 'D' ? (byte) (c - 'A') : NO_OPTION;
+    }
+}
@@ -0,0 +1,79 @@
+package com.quizserver.services.test;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quizserver.config.StandaloneCacheMetrics;
+import com.quizserver.entities.Test;
+import com.quizserver.repository.QuestionRepository;
+import com.quizserver.repository.TestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * In-memory answer keys per test id, loaded lazily with one query and bounded by the
+ * total number of cached questions. Must be invalidated whenever a test's questions change.
+ * With virtual threads loads run off the caller's thread (see {@link CacheLoads}); concurrent
+ * misses for one test share a single load. Hit/miss/eviction counters are published as the
+ * "answerKeys" cache metrics.
+ */
+@Component
+public class AnswerKeyCache {
+
+    private final TestRepository testRepository;
+
+    private final QuestionRepository questionRepository;
+
+    private final AsyncCache<Long, AnswerKey> cache;
+
+    public AnswerKeyCache(TestRepository testRepository,
+                          QuestionRepository questionRepository,
+                          MeterRegistry meterRegistry,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor,
+                          Environment environment,
+                          @Value("${quiz.answer-key-cache.max-questions:1000000}") long maxQuestions) {
+        this.testRepository = testRepository;
+        this.questionRepository = questionRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxQuestions)
+                .weigher((Long testId, AnswerKey key) -> key.getTotalQuestions() + 1)
+                .executor(CacheLoads.executor(environment, taskExecutor))
+                .recordStats()
+                .buildAsync();
+        StandaloneCacheMetrics.monitor(meterRegistry, cache, "answerKeys");
+    }
+
+    public AnswerKey get(Long testId) {
+        if (testId == null) {
+            throw new EntityNotFoundException("Test not found");
+        }
+        return CacheLoads.join(cache.get(testId, (id, executor) -> CompletableFuture.supplyAsync(() -> load(id), executor)));
+    }
+
+    public void invalidate(Long testId) {
+        cache.synchronous().invalidate(testId);
+    }
+
+    private AnswerKey load(Long testId) {
+        Test test = testRepository.findById(testId)
+                .orElseThrow(() -> new EntityNotFoundException("Test not found"));
+
+        List<QuestionRepository.AnswerKeyView> keys = questionRepository.findAnswerKeysByTestId(testId);
+        long[] questionIds = new long[keys.size()];
+        byte[] correctOptions = new byte[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            questionIds[i] = keys.get(i).getId();
+            correctOptions[i] = AnswerKey.toOption(keys.get(i).getCorrectOption());
+        }
+
+        return new AnswerKey(testId, test.getTitle(), questionIds, correctOptions);
+    }
+}
@@ -0,0 +1,381 @@
+package com.quizserver.services.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quizserver.dto.TestResultDTO;
+import com.quizserver.exception.ConflictException;
+import com.quizserver.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind storage of graded submissions, enabled with quiz.submissions.async.enabled.
+ * <p>
+ * A submission is acknowledged once it is in the local {@link SubmissionJournal}; one writer thread
+ * then stores queued submissions in multi-row inserts of up to batch-size rows, one transaction per
+ * batch. Failed batches are retried with exponential backoff; rows the database rejects for good
+ * (user or test deleted meanwhile) are isolated and moved to the {@link SubmissionDeadLetters} file,
+ * since they were already acknowledged. At most queue-capacity submissions wait for the writer;
+ * beyond that callers get a 429. Records left in the journal by a crash are stored on the next start.
+ * <p>
+ * Every row is keyed by its user and submission id, like the unique index: ON CONFLICT DO NOTHING
+ * makes retries, journal replays and client resends store it exactly once, and submissions accepted
+ * within dedup-ttl answer resends from memory, or a 409 when the id is reused for another test. A
+ * reuse after dedup-ttl cannot be told apart before the insert; the row the conflict drops then
+ * goes to the dead-letter file.
+ * Statistics and item analytics are fed from the rows each insert actually returned; a batch whose
+ * commit succeeded but whose reply was lost is only counted there after the next restart.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "quiz.submissions.async.enabled", havingValue = "true")
+public class AsyncSubmissionService {
+
+    private static final int COLUMNS = 7;
+
+    private static final long INITIAL_BACKOFF_MILLIS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TestStatisticsService testStatisticsService;
+
+    private final ItemAnalyticsService itemAnalyticsService;
+
+    private final SubmissionJournal journal;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private final Semaphore capacity;
+
+    private final SubmissionDeadLetters deadLetters;
+
+    private final Cache<RowKey, Accepted> accepted;
+
+    private final int batchSize;
+
+    private final long lingerNanos;
+
+    private final long maxBackoffMillis;
+
+    private final long shutdownTimeoutMillis;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    private final Counter acceptedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter persistedCounter;
+
+    private final Counter discardedCounter;
+
+    private final Timer flushTimer;
+
+    public AsyncSubmissionService(JdbcTemplate jdbcTemplate,
+                                  TestStatisticsService testStatisticsService,
+                                  ItemAnalyticsService itemAnalyticsService,
+                                  MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Value("${quiz.submissions.async.journal-dir:./data/submissions}") Path journalDir,
+                                  @Value("${quiz.submissions.async.dead-letter-file:./data/submissions-dead-letter.ndjson}") Path deadLetterFile,
+                                  @Value("${quiz.submissions.async.segment-bytes:67108864}") long segmentBytes,
+                                  @Value("${quiz.submissions.async.fsync:true}") boolean fsync,
+                                  @Value("${quiz.submissions.async.queue-capacity:50000}") int queueCapacity,
+                                  @Value("${quiz.submissions.async.batch-size:500}") int batchSize,
+                                  @Value("${quiz.submissions.async.linger-ms:5}") long lingerMillis,
+                                  @Value("${quiz.submissions.async.max-backoff-ms:5000}") long maxBackoffMillis,
+                                  @Value("${quiz.submissions.async.dedup-ttl:10m}") Duration dedupTtl,
+                                  @Value("${quiz.submissions.async.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis)
+            throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testStatisticsService = testStatisticsService;
+        this.itemAnalyticsService = itemAnalyticsService;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.accepted = Caffeine.newBuilder()
+                .expireAfterWrite(dedupTtl)
+                .maximumSize(Math.max(queueCapacity, 100_000))
+                .build();
+
+        this.deadLetters = new SubmissionDeadLetters(deadLetterFile, fsync, objectMapper);
+        this.journal = new SubmissionJournal(journalDir, segmentBytes, fsync);
+        List<SubmissionJournal.Record> recovered = journal.recover();
+        for (SubmissionJournal.Record record : recovered) {
+            try {
+                queue.add(new Pending(GradedSubmission.fromBytes(record.payload()), record.segmentId()));
+            } catch (IllegalArgumentException e) {
+                log.error("Discarding unreadable journal record in segment {}", record.segmentId(), e);
+                journal.complete(record.segmentId());
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.info("Recovered {} journaled submissions", queue.size());
+        }
+        // Recovered submissions count against the capacity, so it may start below zero
+        this.capacity = new Semaphore(queueCapacity - queue.size());
+
+        this.acceptedCounter = meterRegistry.counter("quiz.submissions.accepted");
+        this.rejectedCounter = meterRegistry.counter("quiz.submissions.rejected");
+        this.persistedCounter = meterRegistry.counter("quiz.submissions.persisted");
+        this.discardedCounter = meterRegistry.counter("quiz.submissions.discarded");
+        this.flushTimer = Timer.builder("quiz.submissions.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("quiz.submissions.pending", queue, BlockingQueue::size).register(meterRegistry);
+
+        this.writer = new Thread(this::runWriter, "submission-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Journals a graded submission and returns its result without an id; the row is stored shortly after.
+     * A resend of a recently accepted submission id returns the first result and is not journaled
+     * again; the same id sent for another test is a {@link ConflictException}.
+     */
+    public TestResultDTO submit(GradedSubmission submission) {
+        TestResultDTO receipt = submission.toDto(null);
+        RowKey key = new RowKey(submission.userId(), submission.submissionId());
+        Accepted previous = accepted.asMap().putIfAbsent(key, new Accepted(submission.testId(), receipt));
+        if (previous != null) {
+            if (!previous.testId().equals(submission.testId())) {
+                throw new ConflictException("submissionId " + submission.submissionId()
+                        + " was already used for another test");
+            }
+            return previous.receipt();
+        }
+
+        if (!capacity.tryAcquire()) {
+            accepted.invalidate(key);
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many submissions, please retry shortly");
+        }
+
+        long segmentId;
+        try {
+            segmentId = journal.append(submission.toBytes());
+        } catch (IOException e) {
+            capacity.release();
+            accepted.invalidate(key);
+            throw new UncheckedIOException("Could not journal submission", e);
+        }
+        queue.add(new Pending(submission, segmentId));
+        acceptedCounter.increment();
+        return receipt;
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wait up to linger-ms for a fuller batch; under load the queue fills it at once
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                if (!flush(batch)) {
+                    // Stopping while the database is unavailable: the journal keeps the rest
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Returns false when it gave up because the service is stopping
+    private boolean flush(List<Pending> batch) throws InterruptedException {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                Flushed flushed = flushTimer.record(() -> insertIsolatingRejected(batch));
+                completed(batch, flushed);
+                return true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.warn("Stopping with {} submissions not stored, they stay in the journal", batch.size() + queue.size());
+                    return false;
+                }
+                log.warn("Storing {} submissions failed, retrying in {} ms", batch.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffMillis);
+            }
+        }
+    }
+
+    private Flushed insertIsolatingRejected(List<Pending> batch) {
+        List<Inserted> inserted;
+        Map<Pending, String> discarded = new IdentityHashMap<>();
+        try {
+            inserted = insert(batch);
+        } catch (DataIntegrityViolationException e) {
+            // At least one row will never be accepted; store the others one by one
+            inserted = new ArrayList<>();
+            for (Pending pending : batch) {
+                try {
+                    inserted.addAll(insert(List.of(pending)));
+                } catch (DataIntegrityViolationException rejected) {
+                    discarded.put(pending, "rejected: " + rejected.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        findReusedIds(batch, inserted, discarded);
+        return new Flushed(inserted, discarded);
+    }
+
+    // A row the conflict dropped is a resend unless the stored row with its key belongs to another test
+    private void findReusedIds(List<Pending> batch, List<Inserted> inserted, Map<Pending, String> discarded) {
+        Set<RowKey> stored = new HashSet<>();
+        for (Inserted row : inserted) {
+            stored.add(new RowKey(row.userId(), row.submissionId()));
+        }
+        Map<RowKey, Pending> insertedBy = new HashMap<>();
+        for (Pending pending : batch) {
+            GradedSubmission s = pending.submission();
+            RowKey key = new RowKey(s.userId(), s.submissionId());
+            if (discarded.containsKey(pending) || (stored.contains(key) && insertedBy.putIfAbsent(key, pending) == null)) {
+                continue;
+            }
+            List<Long> testIds = jdbcTemplate.queryForList(
+                    "select test_id from test_result where user_id = ? and submission_id = ?",
+                    Long.class, s.userId(), s.submissionId());
+            if (!testIds.isEmpty() && !testIds.get(0).equals(s.testId())) {
+                discarded.put(pending, "submissionId already used for test " + testIds.get(0));
+            }
+        }
+    }
+
+    private List<Inserted> insert(List<Pending> rows) {
+        StringBuilder sql = new StringBuilder(
+                "insert into test_result (submission_id, test_id, user_id, total_questions, correct_answers, "
+                        + "percentage, answers) values ");
+        Object[] args = new Object[rows.size() * COLUMNS];
+        int i = 0;
+        for (Pending pending : rows) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?)");
+            GradedSubmission submission = pending.submission();
+            args[i++] = submission.submissionId();
+            args[i++] = submission.testId();
+            args[i++] = submission.userId();
+            args[i++] = submission.totalQuestions();
+            args[i++] = submission.correctAnswers();
+            args[i++] = submission.percentage();
+            args[i++] = submission.answers();
+        }
+        sql.append(" on conflict (user_id, submission_id) do nothing returning id, user_id, submission_id");
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Inserted(rs.getLong(1), rs.getLong(2), rs.getString(3)), args);
+    }
+
+    private void completed(List<Pending> batch, Flushed flushed) {
+        Map<RowKey, GradedSubmission> byRowKey = new HashMap<>();
+        for (Pending pending : batch) {
+            GradedSubmission s = pending.submission();
+            byRowKey.putIfAbsent(new RowKey(s.userId(), s.submissionId()), s);
+        }
+        List<Inserted> inserted = flushed.inserted();
+        for (Inserted row : inserted) {
+            GradedSubmission s = byRowKey.get(new RowKey(row.userId(), row.submissionId()));
+            testStatisticsService.record(s.testId(), row.id(), s.userId(), s.userName(), s.correctAnswers(), s.percentage());
+            itemAnalyticsService.record(s.testId(), row.id(), s.percentage(), s.answers());
+        }
+        persistedCounter.increment(inserted.size());
+
+        for (Pending pending : batch) {
+            String reason = flushed.discarded().get(pending);
+            if (reason != null && !deadLetter(pending.submission(), reason)) {
+                // Leave the record in the journal; the next start tries it again
+                continue;
+            }
+            try {
+                journal.complete(pending.segmentId());
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}", pending.segmentId(), e);
+            }
+        }
+        capacity.release(batch.size());
+    }
+
+    private boolean deadLetter(GradedSubmission submission, String reason) {
+        discardedCounter.increment();
+        log.error("Discarding submission {} of test {}: {}", submission.submissionId(), submission.testId(), reason);
+        try {
+            deadLetters.write(submission, reason);
+            return true;
+        } catch (IOException e) {
+            log.error("Could not write submission {} to the dead-letter file", submission.submissionId(), e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        // Let the writer drain the queue, then give up on whatever is left; the journal keeps it
+        running = false;
+        writer.join(shutdownTimeoutMillis);
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join();
+        }
+        journal.close();
+        deadLetters.close();
+    }
+
+    private record Pending(GradedSubmission submission, long segmentId) {
+    }
+
+    private record Inserted(long id, long userId, String submissionId) {
+    }
+
+    // Rows the batch stored, and the ones it will never store with the reason
+    private record Flushed(List<Inserted> inserted, Map<Pending, String> discarded) {
+    }
+
+    // Identifies a row the same way as the unique index
+    private record RowKey(long userId, String submissionId) {
+    }
+
+    private record Accepted(Long testId, TestResultDTO receipt) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.quizserver.services.test;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Helpers for the Caffeine caches that load from the database. Those are AsyncCaches whose
+ * loads run on the executor returned by {@link #executor}: a synchronous Caffeine load runs
+ * inside ConcurrentHashMap.compute, i.e. inside a monitor, which on Java 21 pins the virtual
+ * thread (and every thread waiting for the same key) to its carrier for the whole query.
+ * Waiting on the returned future parks instead.
+ */
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    /**
+     * The application task executor when it runs on virtual threads, otherwise the caller's own
+     * thread. Platform threads are not pinned, and the platform task executor (8 core threads,
+     * unbounded queue) would queue every miss beyond the eighth behind the others, so there the
+     * load runs inside the cache's compute exactly like a synchronous Caffeine cache.
+     */
+    static Executor executor(Environment environment, Executor applicationTaskExecutor) {
+        return Threading.VIRTUAL.isActive(environment) ? applicationTaskExecutor : Runnable::run;
+    }
+
+    /**
+     * Waits for a load and rethrows its failure unwrapped.
+     */
+    static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.TestResultDTO;
+
+import java.io.*;
+
+/**
+ * A graded attempt that has not been stored yet: everything the test_result row, the statistics
+ * and the item analytics need, without touching the database again. Serialized into the
+ * submission journal.
+ */
+record GradedSubmission(String submissionId, Long testId, String testTitle, Long userId, String userName,
+                        int totalQuestions, int correctAnswers, double percentage, byte[] answers) {
+
+    private static final int VERSION = 1;
+
+    TestResultDTO toDto(Long resultId) {
+        return new TestResultDTO(resultId, totalQuestions, correctAnswers, percentage, testTitle, userName);
+    }
+
+    byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + answers.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(submissionId);
+            out.writeLong(testId);
+            writeNullableUTF(out, testTitle);
+            out.writeLong(userId);
+            writeNullableUTF(out, userName);
+            out.writeInt(totalQuestions);
+            out.writeInt(correctAnswers);
+            out.writeDouble(percentage);
+            out.writeInt(answers.length);
+            out.write(answers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static GradedSubmission fromBytes(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown submission record version " + version);
+            }
+            String submissionId = in.readUTF();
+            long testId = in.readLong();
+            String testTitle = readNullableUTF(in);
+            long userId = in.readLong();
+            String userName = readNullableUTF(in);
+            int totalQuestions = in.readInt();
+            int correctAnswers = in.readInt();
+            double percentage = in.readDouble();
+            byte[] answers = new byte[in.readInt()];
+            in.readFully(answers);
+            return new GradedSubmission(submissionId, testId, testTitle, userId, userName,
+                    totalQuestions, correctAnswers, percentage, answers);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed submission record", e);
+        }
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.quizserver.services.test;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the grading hot path. Everything is registered up front so recording a submission is
+ * a few atomic adds and never a registry lookup:
+ * quiz.grading.duration (answer key and user lookup, grading and packing, excluding storage),
+ * quiz.grading.score (percentage, bucketed by 10) and quiz.grading.answers{result}.
+ */
+@Component
+public class GradingMetrics {
+
+    private final Timer gradingTimer;
+
+    private final DistributionSummary scoreSummary;
+
+    private final Counter correctCounter;
+
+    private final Counter incorrectCounter;
+
+    private final Counter unansweredCounter;
+
+    public GradingMetrics(MeterRegistry meterRegistry) {
+        this.gradingTimer = Timer.builder("quiz.grading.duration")
+                .description("Time to grade and pack one submission")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.scoreSummary = DistributionSummary.builder("quiz.grading.score")
+                .description("Score of graded submissions in percent")
+                .baseUnit("percent")
+                .serviceLevelObjectives(10, 20, 30, 40, 50, 60, 70, 80, 90, 100)
+                .register(meterRegistry);
+        this.correctCounter = answers(meterRegistry, "correct");
+        this.incorrectCounter = answers(meterRegistry, "incorrect");
+        this.unansweredCounter = answers(meterRegistry, "unanswered");
+    }
+
+    /**
+     * @param startNanos  {@link System#nanoTime()} taken before grading started
+     * @param selections  per-question choices as filled in by {@link AnswerKey#grade(java.util.List, byte[])}
+     */
+    public void record(long startNanos, int correctAnswers, double percentage, byte[] selections) {
+        gradingTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        scoreSummary.record(percentage);
+
+        int unanswered = 0;
+        for (byte selection : selections) {
+            if (selection == AnswerKey.UNANSWERED) {
+                unanswered++;
+            }
+        }
+        correctCounter.increment(correctAnswers);
+        incorrectCounter.increment(selections.length - unanswered - correctAnswers);
+        unansweredCounter.increment(unanswered);
+    }
+
+    private static Counter answers(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("quiz.grading.answers")
+                .description("Graded answers by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,175 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.QuestionAnalyticsDTO;
+import com.quizserver.dto.TestItemAnalyticsDTO;
+import com.quizserver.repository.TestResultReponsitory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Per-question item analysis (difficulty, choice distribution, discrimination) built from the
+ * packed answers of every attempt.
+ * <p>
+ * Submissions only enqueue the attempt; a single analytics thread folds it into the counters,
+ * so grading latency does not depend on how many questions a test has. The queue is bounded:
+ * when it is full the attempt is left out of the live counters (counted in
+ * quiz.item_analytics.dropped) and picked up again by the replay on the next restart.
+ * <p>
+ * On startup the stored answers are replayed on the analytics thread itself. Attempts queued
+ * before that finishes are held back and applied afterwards unless the replay already counted them;
+ * attempts the replay read but that are only queued after it are skipped as well. Which attempts
+ * the replay counted is decided by the ids it actually read, see {@link ReplayedResultIds}.
+ */
+@Slf4j
+@Service
+public class ItemAnalyticsService {
+
+    private final TestResultReponsitory testResultReponsitory;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Executor monitoredExecutor;
+
+    private final Counter dropped;
+
+    private final Map<Long, TestItemStats> stats = new ConcurrentHashMap<>();
+
+    // Only touched on the analytics thread; null once the replay has run
+    private List<Attempt> pending = new ArrayList<>();
+
+    // Only touched on the analytics thread; set once the replay has run
+    private ReplayedResultIds replayed;
+
+    public ItemAnalyticsService(TestResultReponsitory testResultReponsitory,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${quiz.item-analytics.queue-capacity:100000}") int queueCapacity) {
+        this.testResultReponsitory = testResultReponsitory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "item-analytics");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartCoreThread();
+        this.monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, "itemAnalytics");
+        this.dropped = Counter.builder("quiz.item_analytics.dropped")
+                .description("Attempts left out of the live item analytics because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues one graded attempt; never blocks the caller.
+     */
+    public void record(Long testId, long resultId, double percentage, byte[] answers) {
+        Attempt attempt = new Attempt(testId, resultId, percentage, answers);
+        try {
+            monitoredExecutor.execute(() -> apply(attempt));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    public TestItemAnalyticsDTO getTestAnalytics(Long testId) {
+        TestItemStats testStats = stats.get(testId);
+        return testStats != null ? testStats.snapshot() : new TestItemAnalyticsDTO(testId, 0, List.of());
+    }
+
+    /**
+     * Returns null when no attempt has answered the question yet.
+     */
+    public QuestionAnalyticsDTO getQuestionAnalytics(Long testId, Long questionId) {
+        TestItemStats testStats = stats.get(testId);
+        return testStats != null ? testStats.question(questionId) : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            monitoredExecutor.execute(this::replay);
+        } catch (RejectedExecutionException e) {
+            // Queue already full of held-back attempts: wait for room, or they would be held forever
+            try {
+                executor.getQueue().put(this::replay);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void replay() {
+        ReplayedResultIds replayedIds = new ReplayedResultIds();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<TestResultReponsitory.AnswersRow> rows = testResultReponsitory.streamAnswers()) {
+                    rows.forEach(row -> {
+                        replayedIds.add(row.getId());
+                        fold(row.getTestId(), row.getPercentage(), row.getAnswers());
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Item analytics replay failed, analytics cover new attempts only", e);
+        }
+        finishReplay(replayedIds);
+    }
+
+    private void finishReplay(ReplayedResultIds replayedIds) {
+        List<Attempt> held = pending;
+        pending = null;
+        replayed = replayedIds;
+        for (Attempt attempt : held) {
+            if (!replayedIds.contains(attempt.resultId())) {
+                fold(attempt.testId(), attempt.percentage(), attempt.answers());
+            }
+        }
+    }
+
+    private void apply(Attempt attempt) {
+        if (pending != null) {
+            pending.add(attempt);
+            return;
+        }
+        if (!replayed.contains(attempt.resultId())) {
+            fold(attempt.testId(), attempt.percentage(), attempt.answers());
+        }
+    }
+
+    private void fold(Long testId, double percentage, byte[] answers) {
+        try {
+            stats.computeIfAbsent(testId, TestItemStats::new).record(percentage, answers);
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping attempt of test {} with malformed answers", testId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record Attempt(Long testId, long resultId, double percentage, byte[] answers) {
+    }
+}
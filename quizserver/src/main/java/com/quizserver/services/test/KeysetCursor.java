@@ -0,0 +1,41 @@
+package com.quizserver.services.test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the id of the last row of a page, base64url-encoded so clients
+ * treat it as a token. An empty cursor means "start from the first page".
+ */
+public final class KeysetCursor {
+
+    private static final String PREFIX = "k1:";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor, or returns {@code start} for an empty one.
+     *
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(long)}
+     */
+    public static long decode(String cursor, long start) {
+        if (cursor == null || cursor.isEmpty()) {
+            return start;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX)) {
+                return Long.parseLong(value.substring(PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the error below (NumberFormatException included)
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
@@ -0,0 +1,81 @@
+package com.quizserver.services.test;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Compact encoding of the answer choices of one attempt, stored in test_result.answers.
+ * <p>
+ * Each answered question is one unsigned varint {@code delta << 4 | correct << 3 | choice}, in
+ * ascending question id order: delta is the id minus the previous answered id, correct is whether
+ * it was graded correct, and choice is 0..3 for A..D or 4 for anything else. Questions of one test
+ * have nearby ids, so most answers take a single byte. The grading outcome travels with the
+ * choices, so analytics stay valid after the answer key changes.
+ */
+public final class PackedAnswers {
+
+    private static final int OTHER = 4;
+
+    private PackedAnswers() {
+    }
+
+    @FunctionalInterface
+    public interface AnswerVisitor {
+
+        /**
+         * @param choice 0..3 for A..D, {@link AnswerKey#NO_OPTION} for anything else
+         */
+        void accept(long questionId, byte choice, boolean correct);
+    }
+
+    /**
+     * @param selections normalized choice per question index, as filled by {@link AnswerKey#grade(java.util.List, byte[])}
+     */
+    public static byte[] pack(AnswerKey answerKey, byte[] selections) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(selections.length + 8);
+        long previous = 0;
+        for (int i = 0; i < selections.length; i++) {
+            byte selected = selections[i];
+            if (selected == AnswerKey.UNANSWERED) {
+                continue;
+            }
+            long questionId = answerKey.questionIdAt(i);
+            byte correctOption = answerKey.correctOptionAt(i);
+            boolean correct = correctOption != AnswerKey.NO_OPTION && correctOption == selected;
+            int choice = selected == AnswerKey.NO_OPTION ? OTHER : selected;
+
+            writeVarLong(out, (questionId - previous) << 4 | (correct ? 8 : 0) | choice);
+            previous = questionId;
+        }
+        return out.toByteArray();
+    }
+
+    public static void forEach(byte[] packed, AnswerVisitor visitor) {
+        long questionId = 0;
+        int position = 0;
+        while (position < packed.length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position == packed.length || shift > 63) {
+                    throw new IllegalArgumentException("Malformed packed answers");
+                }
+                b = packed[position++];
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            questionId += value >>> 4;
+            int choice = (int) (value & 7);
+            visitor.accept(questionId, choice >= OTHER ? AnswerKey.NO_OPTION : (byte) choice, (value & 8) != 0);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,118 @@
+package com.quizserver.services.test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.QuestionImportResult.RowError;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a question upload (JSON array or CSV with a header row) one row at a time and
+ * validates every row in the same pass. Rows are never persisted here; the caller gets the
+ * valid questions plus every row error so the whole upload can be accepted or rejected at once.
+ */
+@Component
+public class QuestionImportReader {
+
+    public enum Format { JSON, CSV }
+
+    // Columns map to QuestionDTO properties; an id column, if present, is ignored
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader();
+
+    private static final int MAX_LENGTH = 255;
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectReader csvReader;
+
+    private final int maxRows;
+
+    public QuestionImportReader(ObjectMapper objectMapper,
+                                @Value("${quiz.question-import.max-rows:5000}") int maxRows) {
+        this.jsonReader = objectMapper.readerFor(QuestionDTO.class);
+        this.csvReader = new CsvMapper().readerFor(QuestionDTO.class).with(CSV_SCHEMA);
+        this.maxRows = maxRows;
+    }
+
+    public record Parsed(List<QuestionDTO> questions, List<RowError> errors) {
+    }
+
+    public Parsed read(InputStream input, Format format) throws IOException {
+        List<QuestionDTO> questions = new ArrayList<>();
+        List<RowError> errors = new ArrayList<>();
+
+        ObjectReader reader = format == Format.CSV ? csvReader : jsonReader;
+        int row = 0;
+        try (MappingIterator<QuestionDTO> rows = reader.readValues(input)) {
+            while (true) {
+                QuestionDTO dto;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    dto = rows.nextValue();
+                } catch (DatabindException e) {
+                    // The iterator skips past the bad row, so keep validating the rest
+                    errors.add(new RowError(row, null, e.getOriginalMessage()));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Malformed input: the rest of the stream cannot be trusted
+                    errors.add(new RowError(row, null, "Malformed input: " + e.getOriginalMessage()));
+                    break;
+                }
+
+                if (row > maxRows) {
+                    errors.add(new RowError(row, null, "Too many questions, the limit is " + maxRows));
+                    break;
+                }
+                if (validate(row, dto, errors)) {
+                    questions.add(dto);
+                }
+            }
+        }
+
+        if (row == 0) {
+            errors.add(new RowError(0, null, "No questions to import"));
+        }
+        return new Parsed(questions, errors);
+    }
+
+    private static boolean validate(int row, QuestionDTO dto, List<RowError> errors) {
+        int before = errors.size();
+
+        requireText(row, "questionText", dto.getQuestionText(), errors);
+        requireText(row, "optionA", dto.getOptionA(), errors);
+        requireText(row, "optionB", dto.getOptionB(), errors);
+        requireText(row, "optionC", dto.getOptionC(), errors);
+        requireText(row, "optionD", dto.getOptionD(), errors);
+
+        byte correct = AnswerKey.toOption(dto.getCorrectOption());
+        if (correct == AnswerKey.NO_OPTION) {
+            errors.add(new RowError(row, "correctOption", "correctOption must be one of A, B, C, D"));
+        } else {
+            dto.setCorrectOption(String.valueOf((char) ('A' + correct)));
+        }
+
+        return errors.size() == before;
+    }
+
+    private static void requireText(int row, String field, String value, List<RowError> errors) {
+        if (value == null || value.isBlank()) {
+            errors.add(new RowError(row, field, field + " is required"));
+        } else if (value.length() > MAX_LENGTH) {
+            errors.add(new RowError(row, field, field + " exceeds " + MAX_LENGTH + " characters"));
+        }
+    }
+}
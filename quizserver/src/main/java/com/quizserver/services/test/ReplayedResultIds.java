@@ -0,0 +1,36 @@
+package com.quizserver.services.test;
+
+import java.util.BitSet;
+
+/**
+ * The test_result ids a startup replay actually read, so that submissions recorded live can be
+ * told apart from rows the replay already counted. IDENTITY ids are handed out at insert time
+ * but become visible at commit, so a row below the highest replayed id may still have been
+ * missed; only membership is reliable, not an id threshold.
+ * <p>
+ * Ids are stored as bits relative to the first one added: roughly one bit per result for
+ * densely allocated ids. Not thread-safe while being filled; read-only once the replay is done.
+ */
+final class ReplayedResultIds {
+
+    private final BitSet ids = new BitSet();
+
+    private long base = -1;
+
+    void add(long resultId) {
+        if (base < 0) {
+            base = resultId;
+        }
+        if (resultId < base) {
+            throw new IllegalArgumentException("Result ids must be replayed in ascending order");
+        }
+        ids.set(Math.toIntExact(resultId - base));
+    }
+
+    boolean contains(long resultId) {
+        if (base < 0 || resultId < base || resultId - base > Integer.MAX_VALUE) {
+            return false;
+        }
+        return ids.get((int) (resultId - base));
+    }
+}
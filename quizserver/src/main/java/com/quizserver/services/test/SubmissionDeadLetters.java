@@ -0,0 +1,73 @@
+package com.quizserver.services.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only file of acknowledged submissions the writer could not store. Their journal records
+ * are completed afterwards, so this file is the only copy left: one JSON object per line with the
+ * graded submission (packed answers base64-encoded), why it was discarded and when.
+ */
+class SubmissionDeadLetters implements Closeable {
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean fsync;
+
+    private final FileChannel channel;
+
+    SubmissionDeadLetters(Path file, boolean fsync, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends one submission and returns once it is on disk (with fsync enabled).
+     */
+    synchronized void write(GradedSubmission submission, String reason) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("discardedAt", Instant.now().toString());
+        line.put("reason", reason);
+        line.put("submissionId", submission.submissionId());
+        line.put("testId", submission.testId());
+        line.put("testTitle", submission.testTitle());
+        line.put("userId", submission.userId());
+        line.put("userName", submission.userName());
+        line.put("totalQuestions", submission.totalQuestions());
+        line.put("correctAnswers", submission.correctAnswers());
+        line.put("percentage", submission.percentage());
+        line.put("answers", Base64.getEncoder().encodeToString(submission.answers()));
+
+        ByteBuffer buffer = ByteBuffer.wrap((objectMapper.writeValueAsString(line) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,251 @@
+package com.quizserver.services.test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead log of accepted submissions that are not yet in the database.
+ * <p>
+ * Records go to numbered segment files as {@code [length][crc32][payload]}. {@link #append} returns
+ * once the record is on disk; concurrent appenders share one fsync (group commit), so the number of
+ * fsyncs follows disk latency rather than request rate. A segment is deleted once it has been rolled
+ * over and every record in it has been {@link #complete completed}. On startup {@link #recover}
+ * returns the records still on disk; a torn record at the end of a segment is discarded.
+ */
+public class SubmissionJournal implements Closeable {
+
+    private static final String PREFIX = "submissions-";
+
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+
+    private final long segmentBytes;
+
+    private final boolean fsync;
+
+    // Guards appends and segment bookkeeping
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Serializes fsyncs; taken after writeLock when both are needed
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private final Map<Long, Segment> segments = new HashMap<>();
+
+    private Segment active;
+
+    public SubmissionJournal(Path directory, long segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads the records left by a previous run and opens a fresh segment for new ones.
+     * Must be called once, before the first append.
+     */
+    public List<Record> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Record> records = new ArrayList<>();
+        long lastId = 0;
+        for (Path file : segmentFiles()) {
+            long id = segmentId(file);
+            lastId = Math.max(lastId, id);
+            List<byte[]> payloads = readSegment(file);
+            if (payloads.isEmpty()) {
+                Files.delete(file);
+                continue;
+            }
+            Segment segment = new Segment(id, file, null);
+            segment.outstanding = payloads.size();
+            segments.put(id, segment);
+            for (byte[] payload : payloads) {
+                records.add(new Record(id, payload));
+            }
+        }
+        active = openSegment(lastId + 1);
+        return records;
+    }
+
+    /**
+     * Writes one record and waits until it is durable. Returns the id of the segment holding it,
+     * to be passed to {@link #complete} once the record is no longer needed.
+     */
+    public long append(byte[] payload) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        Segment segment;
+        long end;
+        writeLock.lock();
+        try {
+            if (active.size >= segmentBytes) {
+                roll();
+            }
+            segment = active;
+            while (buffer.hasRemaining()) {
+                segment.channel.write(buffer);
+            }
+            segment.size += buffer.limit();
+            segment.outstanding++;
+            end = segment.size;
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (fsync) {
+            sync(segment, end);
+        }
+        return segment.id;
+    }
+
+    /**
+     * Marks one record of the segment as stored elsewhere.
+     */
+    public void complete(long segmentId) throws IOException {
+        writeLock.lock();
+        try {
+            Segment segment = segments.get(segmentId);
+            if (segment != null && --segment.outstanding == 0 && segment != active) {
+                segments.remove(segmentId);
+                Files.deleteIfExists(segment.file);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Whoever gets the lock first forces everything written so far, covering the threads queued behind it
+    private void sync(Segment segment, long end) throws IOException {
+        syncLock.lock();
+        try {
+            if (segment.synced >= end || segment.channel == null || !segment.channel.isOpen()) {
+                // Already covered, or rolled over (which forces the segment before closing it)
+                return;
+            }
+            long target = segment.size;
+            segment.channel.force(false);
+            segment.synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        Segment previous = active;
+        syncLock.lock();
+        try {
+            if (fsync) {
+                previous.channel.force(false);
+            }
+            previous.channel.close();
+        } finally {
+            syncLock.unlock();
+        }
+        active = openSegment(previous.id + 1);
+        if (previous.outstanding == 0) {
+            segments.remove(previous.id);
+            Files.deleteIfExists(previous.file);
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, id, SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, file, channel);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static List<byte[]> readSegment(Path file) throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long remaining = Files.size(file);
+            while (remaining >= 8) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > remaining - 8) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                payloads.add(payload);
+                remaining -= 8 + length;
+            }
+        }
+        return payloads;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (active != null && active.channel.isOpen()) {
+                if (fsync) {
+                    active.channel.force(false);
+                }
+                active.channel.close();
+                if (active.outstanding == 0) {
+                    segments.remove(active.id);
+                    Files.deleteIfExists(active.file);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public record Record(long segmentId, byte[] payload) {
+    }
+
+    private static final class Segment {
+
+        private final long id;
+
+        private final Path file;
+
+        private final FileChannel channel;
+
+        // Written under writeLock, read by sync() without it
+        private volatile long size;
+
+        private volatile long synced;
+
+        private int outstanding;
+
+        Segment(long id, Path file, FileChannel channel) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.quizserver.services.test;
+
+/**
+ * Published after the questions of a test change, so derived caches can drop that test.
+ */
+public record TestContentChangedEvent(Long testId) {
+}
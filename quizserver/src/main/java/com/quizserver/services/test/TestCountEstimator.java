@@ -0,0 +1,64 @@
+package com.quizserver.services.test;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quizserver.config.StandaloneCacheMetrics;
+import com.quizserver.repository.TestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Catalog row counts per (category, search) filter, cached for a short TTL so cursor pages
+ * that ask for a total do not run COUNT(*) every time. Values may lag recent inserts by up to
+ * the TTL, which is why they are exposed as estimates. With virtual threads counts run off the
+ * caller's thread, see {@link CacheLoads}.
+ */
+@Component
+public class TestCountEstimator {
+
+    private final TestRepository testRepository;
+
+    private final AsyncCache<Filter, Long> cache;
+
+    public TestCountEstimator(TestRepository testRepository,
+                              MeterRegistry meterRegistry,
+                              @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor,
+                              Environment environment,
+                              @Value("${quiz.catalog-count.ttl:1m}") Duration ttl) {
+        this.testRepository = testRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .executor(CacheLoads.executor(environment, taskExecutor))
+                .recordStats()
+                .buildAsync();
+        StandaloneCacheMetrics.monitor(meterRegistry, cache, "catalogCounts");
+    }
+
+    public long estimate(String category, String search) {
+        return CacheLoads.join(cache.get(new Filter(category, search),
+                (filter, executor) -> CompletableFuture.supplyAsync(() -> count(filter), executor)));
+    }
+
+    private long count(Filter filter) {
+        if (filter.category() != null && filter.search() != null) {
+            return testRepository.countByCategoryAndTitle(filter.category(), filter.search());
+        } else if (filter.category() != null) {
+            return testRepository.countByCategory(filter.category());
+        } else if (filter.search() != null) {
+            return testRepository.countByTitle(filter.search());
+        }
+        return testRepository.count();
+    }
+
+    private record Filter(String category, String search) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.quizserver.services.test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quizserver.config.StandaloneCacheMetrics;
+import com.quizserver.dto.TestDetailsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Test detail responses encoded once as UTF-8 JSON (plus a gzip copy) and served as raw
+ * bytes, so hot tests are not re-serialized on every request. Entries carry the test's
+ * content version and are rebuilt when a newer version is requested or after a
+ * {@link TestContentChangedEvent}. Bounded by total bytes. With virtual threads builds run off
+ * the caller's thread, see {@link CacheLoads}.
+ */
+@Component
+public class TestDetailsPayloadCache {
+
+    private final TestService testService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Executor loadExecutor;
+
+    private final AsyncCache<Long, Payload> cache;
+
+    public TestDetailsPayloadCache(TestService testService,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor,
+                                   Environment environment,
+                                   @Value("${quiz.test-payload-cache.max-bytes:67108864}") long maxBytes) {
+        this.testService = testService;
+        this.objectMapper = objectMapper;
+        this.loadExecutor = CacheLoads.executor(environment, taskExecutor);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long testId, Payload payload) -> payload.json().length + payload.gzip().length)
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync();
+        StandaloneCacheMetrics.monitor(meterRegistry, cache, "testDetailsPayload");
+    }
+
+    /**
+     * Payload for the given test content version; an entry built for an older version is rebuilt.
+     */
+    public Payload get(Long testId, long version) {
+        CompletableFuture<Payload> future = cache.get(testId, (id, executor) -> loadAsync(id, version, executor));
+        Payload payload = CacheLoads.join(future);
+        if (payload != null && payload.version() < version) {
+            // Swap in a rebuild unless another request already did; with virtual threads only the
+            // future is created under the map lock
+            CompletableFuture<Payload> stale = future;
+            future = cache.asMap().compute(testId, (id, current) -> current == null || current == stale
+                    ? loadAsync(id, version, loadExecutor)
+                    : current);
+            payload = CacheLoads.join(future);
+        }
+        // Unknown tests are encoded per request and never cached
+        return payload != null ? payload : encode(testService.loadTestDetails(testId), version);
+    }
+
+    @EventListener
+    public void onTestContentChanged(TestContentChangedEvent event) {
+        cache.synchronous().invalidate(event.testId());
+    }
+
+    private CompletableFuture<Payload> loadAsync(Long testId, long version, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> load(testId, version), executor);
+    }
+
+    // Read from the database rather than the testDetails cache: the version was read before this
+    // load, so the content can only be newer than its label, never older
+    private Payload load(Long testId, long version) {
+        TestDetailsDTO details = testService.loadTestDetails(testId);
+        return details.getTestDTO() != null ? encode(details, version) : null;
+    }
+
+    private Payload encode(TestDetailsDTO details, long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(details);
+            return new Payload(version, json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode test details", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public record Payload(long version, byte[] json, byte[] gzip) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.QuestionAnalyticsDTO;
+import com.quizserver.dto.TestItemAnalyticsDTO;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running item-analysis counters of one test, keyed by question id. Every counter is a sum, so
+ * an attempt is folded in with O(answered questions) work and nothing is ever recomputed.
+ * Written by the analytics thread only; the lock keeps readers from seeing half an attempt.
+ */
+class TestItemStats {
+
+    private static final String[] CHOICES = {"A", "B", "C", "D", "OTHER"};
+
+    private final Long testId;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final TreeMap<Long, Item> items = new TreeMap<>();
+
+    private long attempts;
+
+    TestItemStats(Long testId) {
+        this.testId = testId;
+    }
+
+    void record(double percentage, byte[] answers) {
+        lock.lock();
+        try {
+            attempts++;
+            PackedAnswers.forEach(answers, (questionId, choice, correct) ->
+                    items.computeIfAbsent(questionId, id -> new Item()).add(choice, correct, percentage));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    TestItemAnalyticsDTO snapshot() {
+        lock.lock();
+        try {
+            List<QuestionAnalyticsDTO> questions = new ArrayList<>(items.size());
+            items.forEach((questionId, item) -> questions.add(item.toDto(questionId)));
+            return new TestItemAnalyticsDTO(testId, attempts, List.copyOf(questions));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    QuestionAnalyticsDTO question(Long questionId) {
+        lock.lock();
+        try {
+            Item item = items.get(questionId);
+            return item != null ? item.toDto(questionId) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Item {
+
+        private long responses;
+
+        private long correct;
+
+        private final long[] choices = new long[CHOICES.length];
+
+        // Score sums over all respondents and over the correct ones, for the point-biserial
+        private double scoreSum;
+
+        private double scoreSquareSum;
+
+        private double correctScoreSum;
+
+        void add(byte choice, boolean isCorrect, double score) {
+            responses++;
+            choices[choice == AnswerKey.NO_OPTION ? CHOICES.length - 1 : choice]++;
+            scoreSum += score;
+            scoreSquareSum += score * score;
+            if (isCorrect) {
+                correct++;
+                correctScoreSum += score;
+            }
+        }
+
+        QuestionAnalyticsDTO toDto(Long questionId) {
+            Map<String, Long> choiceCounts = new LinkedHashMap<>();
+            for (int i = 0; i < CHOICES.length; i++) {
+                choiceCounts.put(CHOICES[i], choices[i]);
+            }
+            return new QuestionAnalyticsDTO(questionId, responses, correct,
+                    responses == 0 ? 0 : (double) correct / responses,
+                    discrimination(),
+                    Collections.unmodifiableMap(choiceCounts));
+        }
+
+        // r_pb = (M1 - M0) / s * sqrt(p * q), uncorrected (the item's own point is part of the score)
+        private Double discrimination() {
+            long incorrect = responses - correct;
+            if (correct == 0 || incorrect == 0) {
+                return null;
+            }
+            double mean = scoreSum / responses;
+            double variance = scoreSquareSum / responses - mean * mean;
+            if (variance <= 1e-9) {
+                return null;
+            }
+            double correctMean = correctScoreSum / correct;
+            double incorrectMean = (scoreSum - correctScoreSum) / incorrect;
+            double p = (double) correct / responses;
+            return (correctMean - incorrectMean) / Math.sqrt(variance) * Math.sqrt(p * (1 - p));
+        }
+    }
+}
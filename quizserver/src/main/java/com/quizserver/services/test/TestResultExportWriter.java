@@ -0,0 +1,110 @@
+package com.quizserver.services.test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.quizserver.dto.TestResultDTO;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes test results row by row as NDJSON or CSV (with header). Rows go through Jackson's
+ * buffered generator straight to the output stream, and only every FLUSH_EVERY rows is the
+ * output flushed, so memory use does not depend on the number of rows exported.
+ */
+@Component
+public class TestResultExportWriter {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter jsonRowWriter;
+
+    private final CsvMapper csvMapper;
+
+    private final ObjectWriter csvRowWriter;
+
+    public TestResultExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // The generator's default root separator is a space, which would start every line after
+        // the first with " {"
+        this.jsonRowWriter = objectMapper.writerFor(TestResultDTO.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // Same column order as the JSON fields, not CsvMapper's default alphabetical order
+        this.csvMapper = CsvMapper.builder()
+                .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .build();
+        this.csvRowWriter = csvMapper.writer(csvMapper.schemaFor(TestResultDTO.class).withHeader())
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Returns the number of rows written. The output stream is flushed but left open.
+     */
+    public long write(Stream<TestResultDTO> rows, OutputStream output, Format format) throws IOException {
+        JsonGenerator generator = format == Format.CSV
+                ? csvMapper.getFactory().createGenerator(output)
+                : objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        long count = 0;
+        try (generator) {
+            if (format == Format.CSV) {
+                try (SequenceWriter csv = csvRowWriter.writeValues(generator)) {
+                    for (Iterator<TestResultDTO> it = rows.iterator(); it.hasNext(); ) {
+                        csv.write(it.next());
+                        if (++count % FLUSH_EVERY == 0) {
+                            csv.flush();
+                        }
+                    }
+                }
+            } else {
+                try (SequenceWriter ndjson = jsonRowWriter.writeValues(generator)) {
+                    for (Iterator<TestResultDTO> it = rows.iterator(); it.hasNext(); ) {
+                        ndjson.write(it.next());
+                        if (++count % FLUSH_EVERY == 0) {
+                            ndjson.flush();
+                        }
+                    }
+                }
+                // The separator only goes between rows; terminate the last line as well
+                if (count > 0) {
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+        return count;
+    }
+}
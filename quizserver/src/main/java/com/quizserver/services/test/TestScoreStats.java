@@ -0,0 +1,152 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.LeaderboardEntryDTO;
+import com.quizserver.dto.TestStatisticsDTO;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running score aggregate of one test: attempt count, score sum, a 101-bucket histogram of whole
+ * percent points and the best result of each of the top N users. {@link #record} is O(log N);
+ * {@link #snapshot} copies the state into immutable DTOs under the same lock, so a snapshot
+ * always describes one consistent set of attempts.
+ */
+class TestScoreStats {
+
+    private static final int BUCKETS = 101;
+
+    // Higher score first, earlier result first on ties
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::percentage).reversed()
+            .thenComparingLong(Entry::resultId);
+
+    private final Long testId;
+
+    private final int leaderboardSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final long[] buckets = new long[BUCKETS];
+
+    private long attempts;
+
+    private double sum;
+
+    private final TreeSet<Entry> top = new TreeSet<>(RANKING);
+
+    private final Map<Long, Entry> topByUser = new HashMap<>();
+
+    private boolean dirty = true;
+
+    TestScoreStats(Long testId, int leaderboardSize) {
+        this.testId = testId;
+        this.leaderboardSize = leaderboardSize;
+    }
+
+    void record(long resultId, Long userId, String userName, int correctAnswers, double percentage) {
+        Entry entry = new Entry(resultId, userId, userName, correctAnswers, percentage);
+        lock.lock();
+        try {
+            attempts++;
+            sum += percentage;
+            buckets[bucketOf(percentage)]++;
+            offer(entry);
+            dirty = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Keeps each user's best result; a user pushed out can only come back with a new, better one
+    private void offer(Entry entry) {
+        Entry current = entry.userId() != null ? topByUser.get(entry.userId()) : null;
+        if (current != null) {
+            if (RANKING.compare(entry, current) >= 0) {
+                return;
+            }
+            top.remove(current);
+        } else if (top.size() >= leaderboardSize && RANKING.compare(entry, top.last()) >= 0) {
+            return;
+        }
+
+        top.add(entry);
+        if (entry.userId() != null) {
+            topByUser.put(entry.userId(), entry);
+        }
+        if (top.size() > leaderboardSize) {
+            Entry evicted = top.pollLast();
+            if (evicted.userId() != null) {
+                topByUser.remove(evicted.userId());
+            }
+        }
+    }
+
+    /**
+     * Returns a fresh snapshot, or null when nothing changed since the last one.
+     */
+    Snapshot snapshotIfChanged() {
+        lock.lock();
+        try {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            return snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Snapshot snapshot() {
+        lock.lock();
+        try {
+            List<LeaderboardEntryDTO> leaderboard = new ArrayList<>(top.size());
+            int rank = 0;
+            for (Entry entry : top) {
+                leaderboard.add(new LeaderboardEntryDTO(++rank, entry.userId(), entry.userName(), entry.resultId(),
+                        entry.correctAnswers(), entry.percentage()));
+            }
+
+            Long[] histogram = new Long[10];
+            Arrays.fill(histogram, 0L);
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                histogram[Math.min(bucket / 10, 9)] += buckets[bucket];
+            }
+
+            TestStatisticsDTO statistics = new TestStatisticsDTO(testId, attempts,
+                    attempts == 0 ? 0 : sum / attempts,
+                    percentile(0), percentile(100),
+                    percentile(50), percentile(25), percentile(75), percentile(90), percentile(99),
+                    List.of(histogram));
+            return new Snapshot(statistics, List.copyOf(leaderboard));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Nearest rank on the histogram: smallest bucket whose cumulative count reaches ceil(p% of attempts)
+    private int percentile(int p) {
+        if (attempts == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * attempts));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                return bucket;
+            }
+        }
+        return BUCKETS - 1;
+    }
+
+    static int bucketOf(double percentage) {
+        return (int) Math.max(0, Math.min(BUCKETS - 1, Math.round(percentage)));
+    }
+
+    record Snapshot(TestStatisticsDTO statistics, List<LeaderboardEntryDTO> leaderboard) {
+    }
+
+    private record Entry(long resultId, Long userId, String userName, int correctAnswers, double percentage) {
+    }
+}
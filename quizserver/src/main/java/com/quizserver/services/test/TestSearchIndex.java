@@ -0,0 +1,493 @@
+package com.quizserver.services.test;
+
+import com.quizserver.repository.TestRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over test title, description and category, replacing
+ * {@code lower(title) like %x%} scans for catalog search.
+ * <p>
+ * Text is lower-cased, stripped of diacritics ("Toán" matches "toan") and split into tokens.
+ * Each query token must match (AND): exactly, as a prefix when it is the last token
+ * (search-as-you-type), or within one edit for tokens of {@value #FUZZY_MIN_LENGTH}+ characters,
+ * found through a deletion-neighbourhood map instead of scanning the vocabulary. Hits are ranked
+ * by field weight (title > category > description) times match quality, ties by id.
+ * <p>
+ * Loaded once the application is ready and updated through {@link #put}; until then
+ * {@link #isReady()} is false and callers fall back to the database. {@link #put} only reaches
+ * the node that created the test, so every refresh-interval-ms the index also re-reads the tests
+ * whose content version is above the catalog version it last saw (see {@link #refresh()}); other
+ * nodes pick up new tests within that interval.
+ */
+@Component
+public class TestSearchIndex {
+
+    static final int FUZZY_MIN_LENGTH = 4;
+
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float EXACT_BOOST = 1f;
+    private static final float PREFIX_BOOST = 0.8f;
+    private static final float FUZZY_BOOST = 0.6f;
+
+    private final TestRepository testRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> postings; sorted so prefixes are a subMap range
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+
+    // term with one character deleted -> terms it was derived from
+    private final Map<String, List<String>> deletions = new HashMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    // exact category -> ids, for the category filter
+    private final Map<String, Postings> categories = new HashMap<>();
+
+    private volatile boolean ready;
+
+    // Catalog version seen by the last refresh, and the version the next one re-reads from.
+    // Only touched by load() and then the scheduler thread, which load() happens-before via ready
+    private long polledVersion;
+
+    private long reloadFrom;
+
+    public TestSearchIndex(TestRepository testRepository) {
+        this.testRepository = testRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // Read first: tests changed while the documents load are re-read by the next refresh
+        long version = testRepository.findCatalogVersion();
+        // put() replaces by id, so tests created while this runs are not lost
+        for (TestRepository.SearchDocument doc : testRepository.findAllSearchDocuments()) {
+            put(doc.getId(), doc.getTitle(), doc.getDescription(), doc.getCategory());
+        }
+        polledVersion = version;
+        reloadFrom = version;
+        ready = true;
+    }
+
+    /**
+     * Indexes tests created or changed on other nodes. Content versions are assigned before
+     * commit, so a test can appear with a version below one already seen; each change is therefore
+     * re-read once more on the following refresh, which covers transactions that commit within
+     * one interval of each other.
+     */
+    @Scheduled(fixedDelayString = "${quiz.search-index.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        long version = testRepository.findCatalogVersion();
+        if (version == polledVersion && reloadFrom == polledVersion) {
+            return;
+        }
+        for (TestRepository.SearchDocument doc : testRepository.findSearchDocumentsChangedAfter(reloadFrom)) {
+            put(doc.getId(), doc.getTitle(), doc.getDescription(), doc.getCategory());
+        }
+        reloadFrom = polledVersion;
+        polledVersion = version;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a test, or replaces the indexed text of an existing one.
+     */
+    public void put(long id, String title, String description, String category) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, title, TITLE_WEIGHT);
+        addField(weights, category, CATEGORY_WEIGHT);
+        addField(weights, description, DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.put(id, new Document(category, weights.keySet().toArray(String[]::new)));
+            if (previous != null) {
+                Postings inCategory = categories.get(previous.category());
+                if (inCategory != null && inCategory.remove(id) && inCategory.isEmpty()) {
+                    categories.remove(previous.category());
+                }
+                for (String term : previous.terms()) {
+                    Postings postings = terms.get(term);
+                    if (postings != null && postings.remove(id) && postings.isEmpty()) {
+                        terms.remove(term);
+                        removeDeletions(term);
+                    }
+                }
+            }
+            if (category != null) {
+                categories.computeIfAbsent(category, key -> new Postings()).put(id, 1f);
+            }
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                Postings postings = terms.get(entry.getKey());
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(entry.getKey(), postings);
+                    addDeletions(entry.getKey());
+                }
+                postings.put(id, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of tests matching every token of the query, best first. A non-empty category keeps only
+     * tests of exactly that category, as the database filter does.
+     */
+    public long[] search(String query, String category) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+        boolean byCategory = category != null && !category.isEmpty();
+
+        lock.readLock().lock();
+        try {
+            List<List<Match>> perToken = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                List<Match> matches = expand(tokens.get(i), i == tokens.size() - 1);
+                if (matches.isEmpty()) {
+                    return new long[0];
+                }
+                perToken.add(matches);
+            }
+            // Start from the most selective token so later ones only probe its candidates
+            perToken.sort(Comparator.comparingLong(TestSearchIndex::cost));
+
+            Candidates candidates = new Candidates();
+            for (Match match : perToken.get(0)) {
+                candidates.union(match.postings(), match.boost());
+            }
+            for (int t = 1; t < perToken.size(); t++) {
+                candidates.intersect(perToken.get(t));
+            }
+            if (byCategory) {
+                candidates.filter(categories.get(category));
+            }
+            return candidates.ranked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Match> expand(String token, boolean prefix) {
+        Map<String, Match> matches = new HashMap<>();
+
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            matches.put(token, new Match(exact, EXACT_BOOST));
+        }
+        if (prefix) {
+            int added = 0;
+            for (Map.Entry<String, Postings> entry : terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                if (++added > MAX_PREFIX_TERMS) {
+                    break;
+                }
+                matches.put(entry.getKey(), new Match(entry.getValue(), PREFIX_BOOST));
+            }
+        }
+        if (token.length() >= FUZZY_MIN_LENGTH) {
+            Set<String> candidates = new HashSet<>();
+            // Same length with one substitution, or one insertion, share a deletion with the token;
+            // one deletion from the token is itself a term
+            candidates.addAll(deletions.getOrDefault(token, List.of()));
+            for (String deletion : deletionsOf(token)) {
+                if (terms.containsKey(deletion)) {
+                    candidates.add(deletion);
+                }
+                candidates.addAll(deletions.getOrDefault(deletion, List.of()));
+            }
+            for (String candidate : candidates) {
+                if (!matches.containsKey(candidate) && withinOneEdit(token, candidate)) {
+                    matches.put(candidate, new Match(terms.get(candidate), FUZZY_BOOST));
+                }
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    private static long cost(List<Match> matches) {
+        long cost = 0;
+        for (Match match : matches) {
+            cost += match.postings().size;
+        }
+        return cost;
+    }
+
+    private void addDeletions(String term) {
+        if (term.length() < FUZZY_MIN_LENGTH) {
+            return;
+        }
+        for (String deletion : deletionsOf(term)) {
+            deletions.computeIfAbsent(deletion, key -> new ArrayList<>(1)).add(term);
+        }
+    }
+
+    private void removeDeletions(String term) {
+        if (term.length() < FUZZY_MIN_LENGTH) {
+            return;
+        }
+        for (String deletion : deletionsOf(term)) {
+            List<String> derived = deletions.get(deletion);
+            if (derived != null && derived.remove(term) && derived.isEmpty()) {
+                deletions.remove(deletion);
+            }
+        }
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> result = new HashSet<>(term.length() * 2);
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    // Levenshtein distance <= 1, plus a swap of two adjacent characters
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < Math.min(la, lb) && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (la == lb) {
+            if (i >= la - 1) {
+                return true;
+            }
+            if (a.substring(i + 1).equals(b.substring(i + 1))) {
+                return true;
+            }
+            return a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        return la > lb ? a.substring(i + 1).equals(b.substring(i)) : b.substring(i + 1).equals(a.substring(i));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String token : new LinkedHashSet<>(tokenize(text))) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replace('đ', 'd');
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private record Document(String category, String[] terms) {
+    }
+
+    /**
+     * Matching ids (ascending) with their running score, kept in primitive arrays so a query
+     * touching thousands of tests allocates a few arrays rather than boxed map entries.
+     */
+    private static final class Candidates {
+
+        long[] ids = new long[0];
+
+        float[] scores = new float[0];
+
+        int size;
+
+        // Merge one expansion of the first token, keeping the best score per id
+        void union(Postings postings, float boost) {
+            long[] mergedIds = new long[size + postings.size];
+            float[] mergedScores = new float[mergedIds.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < postings.size) {
+                if (j == postings.size || (i < size && ids[i] < postings.ids[j])) {
+                    mergedIds[n] = ids[i];
+                    mergedScores[n++] = scores[i++];
+                } else if (i == size || postings.ids[j] < ids[i]) {
+                    mergedIds[n] = postings.ids[j];
+                    mergedScores[n++] = postings.weights[j++] * boost;
+                } else {
+                    mergedIds[n] = ids[i];
+                    mergedScores[n++] = Math.max(scores[i++], postings.weights[j++] * boost);
+                }
+            }
+            ids = mergedIds;
+            scores = mergedScores;
+            size = n;
+        }
+
+        // Keep ids matched by one of the expansions of the next token, adding its best score
+        void intersect(List<Match> matches) {
+            float[] best = new float[size];
+            for (Match match : matches) {
+                probe(match.postings(), match.boost(), best);
+            }
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (best[i] > 0) {
+                    ids[kept] = ids[i];
+                    scores[kept++] = scores[i] + best[i];
+                }
+            }
+            size = kept;
+        }
+
+        void filter(Postings allowed) {
+            if (allowed == null) {
+                size = 0;
+                return;
+            }
+            float[] best = new float[size];
+            probe(allowed, 1f, best);
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (best[i] > 0) {
+                    ids[kept] = ids[i];
+                    scores[kept++] = scores[i];
+                }
+            }
+            size = kept;
+        }
+
+        // best[i] = max(best[i], weight of ids[i] in postings * boost); binary search per candidate
+        // when there are few candidates, one merge walk over both sorted lists otherwise
+        private void probe(Postings postings, float boost, float[] best) {
+            int log = 32 - Integer.numberOfLeadingZeros(postings.size);
+            if ((long) size * log < (long) size + postings.size) {
+                for (int i = 0; i < size; i++) {
+                    best[i] = Math.max(best[i], postings.weight(ids[i]) * boost);
+                }
+                return;
+            }
+            int j = 0;
+            for (int i = 0; i < size && j < postings.size; i++) {
+                while (j < postings.size && postings.ids[j] < ids[i]) {
+                    j++;
+                }
+                if (j < postings.size && postings.ids[j] == ids[i]) {
+                    best[i] = Math.max(best[i], postings.weights[j] * boost);
+                }
+            }
+        }
+
+        // Score descending, then id ascending: one primitive sort of (inverted score bits, position)
+        long[] ranked() {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                // Scores are positive, so their int bits sort like the floats
+                keys[i] = ((long) (Integer.MAX_VALUE - Float.floatToIntBits(scores[i])) << 32) | i;
+            }
+            Arrays.sort(keys);
+            long[] result = new long[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = ids[(int) keys[i]];
+            }
+            return result;
+        }
+    }
+
+    private record Match(Postings postings, float boost) {
+    }
+
+    /**
+     * Ids sorted ascending with their field weight; primitive arrays keep 100k tests at a few MB.
+     */
+    private static final class Postings {
+
+        long[] ids = new long[2];
+
+        float[] weights = new float[2];
+
+        int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void put(long id, float weight) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            // New tests get increasing ids, so this is almost always an append
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            ids[index] = id;
+            weights[index] = weight;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        float weight(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index >= 0 ? weights[index] : 0;
+        }
+    }
+}
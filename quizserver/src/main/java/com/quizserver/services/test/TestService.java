@@ -2,6 +2,9 @@ package com.quizserver.services.test;
 
 import com.quizserver.dto.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface TestService {
@@ -10,15 +13,36 @@ public interface TestService {
 
     QuestionDTO addQuestionToTest(QuestionDTO dto);
 
+    QuestionImportResult importQuestions(Long testId, InputStream input, QuestionImportReader.Format format)
+            throws IOException;
+
     List<TestDTO> getAllTests();
 
     PageResponse<TestDTO> getTests(int page, int size, String category, String search);
 
+    PageResponse<TestDTO> getTestsAfter(String cursor, int size, String category, String search, boolean includeCount);
+
     TestDetailsDTO getAllQuestionsByTest(Long id);
 
+    /**
+     * Same as {@link #getAllQuestionsByTest(Long)} but always read from the database, bypassing the
+     * testDetails cache; for callers that label the result with a content version read beforehand.
+     */
+    TestDetailsDTO loadTestDetails(Long id);
+
+    Long getTestVersion(Long id);
+
+    long getCatalogVersion();
+
     TestResultDTO submitTest(SubmitTestDTO request);
 
-    List<TestResultDTO> getAllTestResults();
+    PageResponse<TestResultDTO> getAllTestResults();
+
+    PageResponse<TestResultDTO> getTestResultsPage(String cursor, int size);
+
+    long exportTestResults(OutputStream output, TestResultExportWriter.Format format) throws IOException;
+
+    PageResponse<TestResultDTO> getAllTestResultsByUser(Long userId, Long testId);
 
-    List<TestResultDTO> getAllTestResultsByUser(Long userId);
+    PageResponse<TestResultDTO> getTestResultsPageByUser(Long userId, Long testId, String cursor, int size);
 }
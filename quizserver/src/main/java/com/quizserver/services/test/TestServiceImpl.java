@@ -1,26 +1,49 @@
 package com.quizserver.services.test;
 
+import com.quizserver.config.CacheConfig;
 import com.quizserver.dto.*;
-import com.quizserver.entities.QuestionResponse;
 import com.quizserver.entities.Test;
 import com.quizserver.entities.Question;
 import com.quizserver.entities.TestResult;
 
 import com.quizserver.entities.User;
+import com.quizserver.exception.ConflictException;
 import com.quizserver.repository.QuestionRepository;
 import com.quizserver.repository.TestRepository;
 import com.quizserver.repository.TestResultReponsitory;
 import com.quizserver.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class TestServiceImpl implements TestService {
@@ -37,42 +60,180 @@ public class TestServiceImpl implements TestService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuestionImportReader questionImportReader;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestResultExportWriter testResultExportWriter;
+
+    @Autowired
+    private TestCountEstimator testCountEstimator;
+
+    @Autowired
+    private TestSearchIndex testSearchIndex;
+
+    @Autowired
+    private TestStatisticsService testStatisticsService;
+
+    @Autowired
+    private ItemAnalyticsService itemAnalyticsService;
+
+    @Autowired
+    private GradingMetrics gradingMetrics;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Cap of the list returned by the result endpoints when no cursor is given
+    @Value("${quiz.results.list-limit:1000}")
+    private int resultListLimit;
+
+    // Present only with quiz.submissions.async.enabled=true
+    @Autowired(required = false)
+    private AsyncSubmissionService asyncSubmissionService;
+
+    @CacheEvict(cacheNames = CacheConfig.TEST_PAGES, allEntries = true)
     public TestDTO createTest(TestDTO testDTO) {
         Test test = new Test();
 
         test.setTitle(testDTO.getTitle());
         test.setDescription(testDTO.getDescription());
         test.setTime(testDTO.getTime());
+        test.setCategory(testDTO.getCategory() != null ? testDTO.getCategory() : "General");
 
-        return testRepository.save(test).getDto();
+        TestDTO saved = testRepository.save(test).getDto();
+        evictContentCaches(saved.getId());
+        testRepository.bumpContentVersion(saved.getId());
+        testSearchIndex.put(saved.getId(), saved.getTitle(), saved.getDescription(), saved.getCategory());
+        return saved;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.TEST_PAGES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TEST_DETAILS, key = "#dto.id")
+    })
     public QuestionDTO addQuestionToTest(QuestionDTO dto) {
         Optional<Test> testOpt = testRepository.findById(dto.getId());
         if (testOpt.isPresent()) {
-            Question question = new Question();
-
-            question.setQuestionText(dto.getQuestionText());
-            question.setOptionA(dto.getOptionA());
-            question.setOptionB(dto.getOptionB());
-            question.setOptionC(dto.getOptionC());
-            question.setOptionD(dto.getOptionD());
-            question.setCorrectOption(dto.getCorrectOption());
-            question.setTest(testOpt.get());
-            return questionRepository.save(question).getDto();
+            QuestionDTO saved = questionRepository.save(toQuestion(dto, testOpt.get())).getDto();
+            // Bump only after the question is committed, so a version never labels older content
+            evictContentCaches(dto.getId());
+            testRepository.bumpContentVersion(dto.getId());
+            answerKeyCache.invalidate(dto.getId());
+            eventPublisher.publishEvent(new TestContentChangedEvent(dto.getId()));
+            return saved;
         }
 
         throw new EntityNotFoundException("Test not found");
     }
 
+    /**
+     * Not @Transactional: the upload is read and validated before any transaction starts, then
+     * all rows are inserted in one transaction (JDBC batches, sequence ids). Caches are evicted
+     * and the change event published only after that transaction has committed.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.TEST_PAGES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.TEST_DETAILS, key = "#testId")
+    })
+    public QuestionImportResult importQuestions(Long testId, InputStream input, QuestionImportReader.Format format)
+            throws IOException {
+        if (!testRepository.existsById(testId)) {
+            throw new EntityNotFoundException("Test not found");
+        }
+
+        QuestionImportReader.Parsed parsed = questionImportReader.read(input, format);
+        QuestionImportResult result = new QuestionImportResult();
+        result.setTestId(testId);
+        if (!parsed.errors().isEmpty()) {
+            result.setErrors(parsed.errors());
+            return result;
+        }
+
+        Integer imported = transactionTemplate.execute(status -> {
+            Test test = testRepository.getReferenceById(testId);
+            List<Question> questions = parsed.questions().stream()
+                    .map(dto -> toQuestion(dto, test))
+                    .collect(Collectors.toList());
+            questionRepository.saveAll(questions);
+            evictContentCaches(testId);
+            testRepository.bumpContentVersion(testId);
+            return questions.size();
+        });
+
+        answerKeyCache.invalidate(testId);
+        eventPublisher.publishEvent(new TestContentChangedEvent(testId));
+        result.setImported(imported);
+        return result;
+    }
+
+    /**
+     * Evicts the cached details and catalog pages before the content version is bumped. The
+     * @CacheEvict on the caller only runs after it returns; a request served between the bump and
+     * that eviction would otherwise pair the stale cached body with the new version's ETag.
+     */
+    private void evictContentCaches(Long testId) {
+        Cache details = cacheManager.getCache(CacheConfig.TEST_DETAILS);
+        if (details != null) {
+            details.evict(testId);
+        }
+        Cache pages = cacheManager.getCache(CacheConfig.TEST_PAGES);
+        if (pages != null) {
+            pages.clear();
+        }
+    }
+
+    /**
+     * The stored result of an earlier send of this submission. Results are unique on (user,
+     * submissionId) alone, so an id the user already spent on another test is a conflict, not a resend.
+     */
+    private Optional<TestResultDTO> findResend(Long userId, Long testId, String submissionId) {
+        Optional<Long> storedTestId = testResultReponsitory.findTestIdBySubmissionId(userId, submissionId);
+        if (storedTestId.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!storedTestId.get().equals(testId)) {
+            throw new ConflictException("submissionId " + submissionId + " was already used for another test");
+        }
+        return testResultReponsitory.findResultBySubmissionId(userId, testId, submissionId);
+    }
+
+    private static Question toQuestion(QuestionDTO dto, Test test) {
+        Question question = new Question();
+
+        question.setQuestionText(dto.getQuestionText());
+        question.setOptionA(dto.getOptionA());
+        question.setOptionB(dto.getOptionB());
+        question.setOptionC(dto.getOptionC());
+        question.setOptionD(dto.getOptionD());
+        question.setCorrectOption(dto.getCorrectOption());
+        question.setTest(test);
+
+        return question;
+    }
+
+    @Transactional(readOnly = true)
     public List<TestDTO> getAllTests() {
-        return testRepository.findAll().stream()
-                .peek(test -> test.setTime(test.getQuestions().size() * test.getTime()))
-                .toList()
-                .stream().map(Test::getDto).collect(Collectors.toList());
+        return testRepository.findAllSummaries().stream()
+                .map(this::toTestDTO)
+                .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TEST_PAGES, key = "{#page, #size, #category, #search}")
     public PageResponse<TestDTO> getTests(int page, int size, String category, String search) {
         // Validate page and size parameters
         if (page < 0) {
@@ -87,25 +248,29 @@ public class TestServiceImpl implements TestService {
             size = 10;
         }
 
+        // Search goes through the in-memory index (ranked), only the page rows are read from the database
+        if (search != null && !search.isEmpty() && testSearchIndex.isReady()) {
+            return searchPage(testSearchIndex.search(search, category), page, size);
+        }
+
         Pageable pageable = PageRequest.of(page, size);
-        Page<Test> testPage;
+        Page<TestRepository.TestSummary> testPage;
 
         // Apply filters based on provided parameters
         if (category != null && !category.isEmpty() && search != null && !search.isEmpty()) {
-            testPage = testRepository.findByCategoryAndTitleContainingIgnoreCase(category, search, pageable);
+            testPage = testRepository.findSummariesByCategoryAndTitle(category, search, pageable);
         } else if (category != null && !category.isEmpty()) {
-            testPage = testRepository.findByCategory(category, pageable);
+            testPage = testRepository.findSummariesByCategory(category, pageable);
         } else if (search != null && !search.isEmpty()) {
-            testPage = testRepository.findByTitleContainingIgnoreCase(search, pageable);
+            testPage = testRepository.findSummariesByTitle(search, pageable);
         } else {
-            testPage = testRepository.findAll(pageable);
+            testPage = testRepository.findSummaries(pageable);
         }
 
         // Convert to PageResponse
         PageResponse<TestDTO> response = new PageResponse<>();
         response.setContent(testPage.getContent().stream()
-                .peek(test -> test.setTime(test.getQuestions().size() * test.getTime()))
-                .map(Test::getDto)
+                .map(this::toTestDTO)
                 .collect(Collectors.toList()));
         response.setCurrentPage(testPage.getNumber());
         response.setPageSize(testPage.getSize());
@@ -116,77 +281,292 @@ public class TestServiceImpl implements TestService {
         return response;
     }
 
+    /**
+     * Keyset variant of getTests: seeks past the id in the cursor instead of skipping rows with
+     * OFFSET, so deep pages cost the same as the first one. No COUNT(*) runs unless includeCount
+     * is set, and then the total comes from the cached estimate. Search results are in id order
+     * here, not ranked, so that the cursor stays a plain id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TEST_PAGES, key = "{'cursor', #cursor, #size, #category, #search, #includeCount}")
+    public PageResponse<TestDTO> getTestsAfter(String cursor, int size, String category, String search,
+                                               boolean includeCount) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Page size cannot be negative");
+        }
+        if (size == 0) {
+            size = 10;
+        }
+
+        long afterId = KeysetCursor.decode(cursor, 0);
+        boolean byCategory = category != null && !category.isEmpty();
+        boolean bySearch = search != null && !search.isEmpty();
+
+        // Index matches re-sorted by id so the cursor can seek in them; the count is exact and free
+        if (bySearch && testSearchIndex.isReady()) {
+            long[] matches = testSearchIndex.search(search, category);
+            Arrays.sort(matches);
+            int from = Arrays.binarySearch(matches, afterId);
+            from = from >= 0 ? from + 1 : -from - 1;
+            int to = (int) Math.min((long) from + size + 1, matches.length);
+            return cursorPage(loadInOrder(matches, from, to), size, TestDTO::getId,
+                    includeCount ? (long) matches.length : null);
+        }
+
+        // One extra row tells whether a next page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<TestRepository.TestSummary> rows;
+        if (byCategory && bySearch) {
+            rows = testRepository.findSummariesByCategoryAndTitleAfter(category, search, afterId, limit);
+        } else if (byCategory) {
+            rows = testRepository.findSummariesByCategoryAfter(category, afterId, limit);
+        } else if (bySearch) {
+            rows = testRepository.findSummariesByTitleAfter(search, afterId, limit);
+        } else {
+            rows = testRepository.findSummariesAfter(afterId, limit);
+        }
+
+        Long total = includeCount
+                ? testCountEstimator.estimate(byCategory ? category : null, bySearch ? search : null)
+                : null;
+        return cursorPage(rows.stream().map(this::toTestDTO).collect(Collectors.toList()), size, TestDTO::getId, total);
+    }
+
+    private PageResponse<TestDTO> searchPage(long[] ranked, int page, int size) {
+        int from = (int) Math.min((long) page * size, ranked.length);
+        int to = Math.min(from + size, ranked.length);
+
+        PageResponse<TestDTO> response = new PageResponse<>();
+        response.setContent(loadInOrder(ranked, from, to));
+        response.setCurrentPage(page);
+        response.setPageSize(size);
+        response.setTotalElements(ranked.length);
+        response.setTotalPages((ranked.length + size - 1) / size);
+        response.setLast(to >= ranked.length);
+
+        return response;
+    }
+
+    // Summaries for ids[from, to) in that order, with one IN query
+    private List<TestDTO> loadInOrder(long[] ids, int from, int to) {
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(ids[i]);
+        }
+        Map<Long, TestRepository.TestSummary> rows = testRepository.findSummariesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(TestRepository.TestSummary::getId, Function.identity()));
+
+        List<TestDTO> content = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            TestRepository.TestSummary row = rows.get(id);
+            if (row != null) {
+                content.add(toTestDTO(row));
+            }
+        }
+        return content;
+    }
+
+    // rows holds up to size + 1 items; the extra one is dropped and only signals a next page
+    private static <T> PageResponse<T> cursorPage(List<T> rows, int size, ToLongFunction<T> idOf, Long total) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+
+        PageResponse<T> response = new PageResponse<>();
+        response.setContent(content);
+        response.setCurrentPage(-1);
+        response.setPageSize(size);
+        response.setTotalElements(total != null ? total : -1);
+        response.setTotalPages(total != null ? (int) ((total + size - 1) / size) : -1);
+        response.setLast(!hasNext);
+        response.setNextCursor(hasNext ? KeysetCursor.encode(idOf.applyAsLong(content.get(content.size() - 1))) : null);
+
+        return response;
+    }
+
+    private TestDTO toTestDTO(TestRepository.TestSummary summary) {
+        TestDTO dto = new TestDTO();
+
+        dto.setId(summary.getId());
+        dto.setTitle(summary.getTitle());
+        dto.setDescription(summary.getDescription());
+        dto.setTime(totalTime(summary.getTime(), summary.getQuestionCount()));
+        dto.setCategory(summary.getCategory());
+
+        return dto;
+    }
+
+    // Displayed time is the per-question time times the number of questions; never written back to Test
+    private static Long totalTime(Long timePerQuestion, long questionCount) {
+        return timePerQuestion != null ? questionCount * timePerQuestion : null;
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TEST_DETAILS, key = "#id", unless = "#result.testDTO == null")
     public TestDetailsDTO getAllQuestionsByTest(Long id) {
+        return loadTestDetails(id);
+    }
+
+    @Transactional(readOnly = true)
+    public TestDetailsDTO loadTestDetails(Long id) {
         Optional<Test> optionalTest = testRepository.findById(id);
         TestDetailsDTO testDetailsDTO = new TestDetailsDTO();
 
         if (optionalTest.isPresent()) {
+            List<Question> questions = optionalTest.get().getQuestions();
             TestDTO testDTO = optionalTest.get().getDto();
-            testDTO.setTime(optionalTest.get().getQuestions().size() * optionalTest.get().getTime());
+            testDTO.setTime(totalTime(testDTO.getTime(), questions.size()));
 
             testDetailsDTO.setTestDTO(testDTO);
-            testDetailsDTO.setQuestions(
-                    optionalTest.get().getQuestions().stream().map(Question::getDto).collect(Collectors.toList()));
+            testDetailsDTO.setQuestions(questions.stream().map(Question::getDto).collect(Collectors.toList()));
             return testDetailsDTO;
         }
 
         return testDetailsDTO;
     }
 
-    public TestResultDTO submitTest(SubmitTestDTO request) {
-        Test test = testRepository.findById(request.getTestId())
-                .orElseThrow(() -> new EntityNotFoundException("Test not found"));
+    public Long getTestVersion(Long id) {
+        return testRepository.findContentVersionById(id).orElse(null);
+    }
 
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+    public long getCatalogVersion() {
+        return testRepository.findCatalogVersion();
+    }
 
-        int correctAnswers = 0;
+    public TestResultDTO submitTest(SubmitTestDTO request) {
+        String submissionId = request.getSubmissionId();
+        if (submissionId != null && (submissionId.isBlank() || submissionId.length() > 64)) {
+            throw new IllegalArgumentException("submissionId must be 1 to 64 characters");
+        }
+        if (submissionId != null && asyncSubmissionService == null) {
+            Optional<TestResultDTO> stored = findResend(request.getUserId(), request.getTestId(), submissionId);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+        }
 
-        for (QuestionResponse response : request.getResponses()) {
-            Question question = questionRepository.findById(response.getQuestionId())
-                    .orElseThrow(() -> new EntityNotFoundException(
-                            "Question not found with ID: " + response.getQuestionId()));
+        long gradingStart = System.nanoTime();
+        // Served from the answer-key cache; on a miss it costs one test lookup plus one key query
+        AnswerKey answerKey = answerKeyCache.get(request.getTestId());
 
-            String correct = normalizeToLetter(question.getCorrectOption());
-            String selected = normalizeToLetter(response.getSelectedOption());
+        User user = userRepository.findById(request.getUserId())
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
-            if (correct != null && correct.equals(selected)) {
-                correctAnswers++;
-            }
+        byte[] selections = new byte[answerKey.getTotalQuestions()];
+        int correctAnswers = answerKey.grade(request.getResponses(), selections);
+        int totalQuestions = answerKey.getTotalQuestions();
+        double percentage = totalQuestions == 0 ? 0 : (double) correctAnswers / totalQuestions * 100;
+        byte[] answers = PackedAnswers.pack(answerKey, selections);
+        gradingMetrics.record(gradingStart, correctAnswers, percentage, selections);
+
+        if (asyncSubmissionService != null) {
+            return asyncSubmissionService.submit(new GradedSubmission(
+                    submissionId != null ? submissionId : UUID.randomUUID().toString(),
+                    answerKey.getTestId(), answerKey.getTestTitle(), user.getId(), user.getName(),
+                    totalQuestions, correctAnswers, percentage, answers));
         }
 
-        int totalQuestions = test.getQuestions().size();
-        double percentage = (double) correctAnswers / totalQuestions * 100;
-
         TestResult testResult = new TestResult();
-        testResult.setTest(test);
+        testResult.setSubmissionId(submissionId);
+        testResult.setTest(testRepository.getReferenceById(answerKey.getTestId()));
         testResult.setUser(user);
         testResult.setTotalQuestions(totalQuestions);
         testResult.setCorrectAnswers(correctAnswers);
         testResult.setPercentage(percentage);
+        testResult.setAnswers(answers);
+        try {
+            testResultReponsitory.save(testResult);
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race against a concurrent resend of the same submission. The failed flush
+            // leaves this session unusable, so the stored result is read in a new transaction
+            if (submissionId == null) {
+                throw e;
+            }
+            TransactionTemplate lookup = new TransactionTemplate(transactionManager);
+            lookup.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            lookup.setReadOnly(true);
+            return lookup.execute(status -> findResend(user.getId(), answerKey.getTestId(), submissionId))
+                    .orElseThrow(() -> e);
+        }
+        testStatisticsService.record(answerKey.getTestId(), testResult.getId(), user.getId(), user.getName(),
+                correctAnswers, percentage);
+        itemAnalyticsService.record(answerKey.getTestId(), testResult.getId(), percentage, answers);
+
+        // Built here rather than via getDto() so the test proxy is never initialized
+        TestResultDTO dto = new TestResultDTO();
+        dto.setId(testResult.getId());
+        dto.setTotalQuestions(totalQuestions);
+        dto.setCorrectAnswers(correctAnswers);
+        dto.setPercentage(percentage);
+        dto.setTestName(answerKey.getTestTitle());
+        dto.setUserName(user.getName());
+
+        return dto;
+    }
+
+    /**
+     * The newest results, at most quiz.results.list-limit of them. When the list was cut, nextCursor
+     * continues it through {@link #getTestResultsPage}.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<TestResultDTO> getAllTestResults() {
+        List<TestResultDTO> rows = testResultReponsitory.findResultsBefore(
+                Long.MAX_VALUE, PageRequest.of(0, resultListLimit + 1));
+        return cursorPage(rows, resultListLimit, TestResultDTO::getId, null);
+    }
 
-        return testResultReponsitory.save(testResult).getDto();
+    @Transactional(readOnly = true)
+    public PageResponse<TestResultDTO> getTestResultsPage(String cursor, int size) {
+        int pageSize = resultPageSize(size);
+        List<TestResultDTO> rows = testResultReponsitory.findResultsBefore(
+                KeysetCursor.decode(cursor, Long.MAX_VALUE), PageRequest.of(0, pageSize + 1));
+        return cursorPage(rows, pageSize, TestResultDTO::getId, null);
     }
 
-    private String normalizeToLetter(String value) {
-        if (value == null)
-            return null;
-        String v = value.trim().toUpperCase();
-        if (v.equals("A") || v.equals("B") || v.equals("C") || v.equals("D")) {
-            return v;
+    /**
+     * Newest-first history of one user, optionally for a single test. Each page is one query that
+     * seeks in idx_test_result_user_id_id and joins in the test title and user name.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<TestResultDTO> getTestResultsPageByUser(Long userId, Long testId, String cursor, int size) {
+        int pageSize = resultPageSize(size);
+        long beforeId = KeysetCursor.decode(cursor, Long.MAX_VALUE);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<TestResultDTO> rows = testId != null
+                ? testResultReponsitory.findResultsByUserIdAndTestIdBefore(userId, testId, beforeId, limit)
+                : testResultReponsitory.findResultsByUserIdBefore(userId, beforeId, limit);
+        return cursorPage(rows, pageSize, TestResultDTO::getId, null);
+    }
+
+    private static int resultPageSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Page size cannot be negative");
         }
-        return null;
+        return size == 0 ? 20 : size;
     }
 
-    public List<TestResultDTO> getAllTestResults() {
-        return testResultReponsitory.findAll().stream()
-                .map(TestResult::getDto)
-                .collect(Collectors.toList());
+    /**
+     * Streams every result from a database cursor into the output; the transaction stays
+     * open for the whole export. Heap use is bounded by the fetch size, not the row count.
+     */
+    @Transactional(readOnly = true)
+    public long exportTestResults(OutputStream output, TestResultExportWriter.Format format) throws IOException {
+        try (Stream<TestResultDTO> rows = testResultReponsitory.streamAllResults()) {
+            return testResultExportWriter.write(rows, output, format);
+        }
     }
 
-    public List<TestResultDTO> getAllTestResultsByUser(Long userId) {
-        return testResultReponsitory.findAllByUserId(userId).stream()
-                .map(TestResult::getDto)
-                .collect(Collectors.toList());
+    // Same cap and nextCursor as getAllTestResults, continued by getTestResultsPageByUser
+    @Transactional(readOnly = true)
+    public PageResponse<TestResultDTO> getAllTestResultsByUser(Long userId, Long testId) {
+        Pageable limit = PageRequest.of(0, resultListLimit + 1);
+        List<TestResultDTO> rows = testId != null
+                ? testResultReponsitory.findResultsByUserIdAndTestIdBefore(userId, testId, Long.MAX_VALUE, limit)
+                : testResultReponsitory.findResultsByUserIdBefore(userId, Long.MAX_VALUE, limit);
+        return cursorPage(rows, resultListLimit, TestResultDTO::getId, null);
     }
 }
@@ -0,0 +1,137 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.LeaderboardEntryDTO;
+import com.quizserver.dto.TestStatisticsDTO;
+import com.quizserver.repository.TestResultReponsitory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Leaderboards and score statistics per test, maintained in memory as results are submitted
+ * instead of being computed from the test_result table.
+ * <p>
+ * Submissions update a {@link TestScoreStats} per test. Readers never touch those: they get the
+ * immutable snapshot published by {@link #publishSnapshots()} every snapshot-interval-ms, so a read
+ * is a map lookup and may lag the latest submissions by up to that interval.
+ * <p>
+ * On startup the existing results are replayed once. Submissions arriving before that finishes
+ * are held back and applied afterwards unless the replay already counted them; the same check
+ * covers submissions the replay read but whose record() call only comes after it. Which rows the
+ * replay counted is decided by the ids it actually read, see {@link ReplayedResultIds}.
+ */
+@Service
+public class TestStatisticsService {
+
+    private final TestResultReponsitory testResultReponsitory;
+
+    private final int leaderboardSize;
+
+    private final Map<Long, TestScoreStats> stats = new ConcurrentHashMap<>();
+
+    private final Map<Long, TestScoreStats.Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private List<Submission> pending = new ArrayList<>();
+
+    // Published by markLoaded() through the volatile write of loaded
+    private ReplayedResultIds replayed;
+
+    private volatile boolean loaded;
+
+    public TestStatisticsService(TestResultReponsitory testResultReponsitory,
+                                 @Value("${quiz.statistics.leaderboard-size:10}") int leaderboardSize) {
+        this.testResultReponsitory = testResultReponsitory;
+        this.leaderboardSize = leaderboardSize;
+    }
+
+    public void record(Long testId, long resultId, Long userId, String userName, int correctAnswers, double percentage) {
+        if (!loaded) {
+            loadLock.lock();
+            try {
+                if (!loaded) {
+                    pending.add(new Submission(testId, resultId, userId, userName, correctAnswers, percentage));
+                    return;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        if (!replayed.contains(resultId)) {
+            statsFor(testId).record(resultId, userId, userName, correctAnswers, percentage);
+        }
+    }
+
+    public TestStatisticsDTO getStatistics(Long testId) {
+        TestScoreStats.Snapshot snapshot = snapshots.get(testId);
+        return snapshot != null ? snapshot.statistics() : new TestScoreStats(testId, leaderboardSize).snapshot().statistics();
+    }
+
+    public List<LeaderboardEntryDTO> getLeaderboard(Long testId) {
+        TestScoreStats.Snapshot snapshot = snapshots.get(testId);
+        return snapshot != null ? snapshot.leaderboard() : List.of();
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.statistics.snapshot-interval-ms:1000}")
+    public void publishSnapshots() {
+        stats.forEach((testId, testStats) -> {
+            TestScoreStats.Snapshot snapshot = testStats.snapshotIfChanged();
+            if (snapshot != null) {
+                snapshots.put(testId, snapshot);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        ReplayedResultIds replayedIds = new ReplayedResultIds();
+        try (Stream<TestResultReponsitory.ScoreRow> rows = testResultReponsitory.streamScores()) {
+            rows.forEach(row -> {
+                replayedIds.add(row.getId());
+                statsFor(row.getTestId()).record(row.getId(), row.getUserId(), row.getUserName(),
+                        row.getCorrectAnswers(), row.getPercentage());
+            });
+        }
+        markLoaded(replayedIds);
+        publishSnapshots();
+    }
+
+    // Switches record() to the live path and applies what it held back meanwhile
+    void markLoaded(ReplayedResultIds replayedIds) {
+        List<Submission> held;
+        loadLock.lock();
+        try {
+            replayed = replayedIds;
+            loaded = true;
+            held = pending;
+            pending = null;
+        } finally {
+            loadLock.unlock();
+        }
+        for (Submission s : held) {
+            if (!replayedIds.contains(s.resultId())) {
+                statsFor(s.testId()).record(s.resultId(), s.userId(), s.userName(), s.correctAnswers(), s.percentage());
+            }
+        }
+    }
+
+    private TestScoreStats statsFor(Long testId) {
+        return stats.computeIfAbsent(testId, id -> new TestScoreStats(id, leaderboardSize));
+    }
+
+    private record Submission(Long testId, long resultId, Long userId, String userName, int correctAnswers,
+                              double percentage) {
+    }
+}
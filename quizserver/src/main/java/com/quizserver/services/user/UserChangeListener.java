@@ -0,0 +1,34 @@
+package com.quizserver.services.user;
+
+import com.quizserver.entities.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Objects;
+
+/**
+ * JPA listener on {@link User}: any flush that changes a user's email or role, or deletes the
+ * user, publishes a {@link UserPrincipalChangedEvent}, whichever service or repository call made
+ * the change. Created by Hibernate through the Spring bean container.
+ */
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostUpdate
+    void afterUpdate(User user) {
+        if (!Objects.equals(user.getLoadedEmail(), user.getEmail()) || user.getLoadedRole() != user.getRole()) {
+            eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getLoadedEmail()));
+        }
+    }
+
+    @PostRemove
+    void afterRemove(User user) {
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getLoadedEmail()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.quizserver.services.user;
+
+/**
+ * Published when a user's email or role changes or the user is deleted, so principals cached
+ * under the old email can be dropped. Listeners should act after commit.
+ */
+public record UserPrincipalChangedEvent(String email) {
+}
@@ -76,6 +76,7 @@ public class UserServiceImpl implements UserService {
             if (hasUserWithEmail(userDTO.getEmail())) {
                 throw new BadRequestException("Email is already taken");
             }
+            // Tokens issued for the old email stop resolving once this commits (see UserChangeListener)
             user.setEmail(userDTO.getEmail());
         }
 
@@ -0,0 +1,6 @@
+-- Client-supplied submission id; the unique index makes resent and replayed submissions insert once
+-- (INSERT ... ON CONFLICT (submission_id) DO NOTHING). Existing rows keep NULL, which never conflicts
+
+ALTER TABLE test_result ADD COLUMN IF NOT EXISTS submission_id varchar(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_test_result_submission_id ON test_result (submission_id);
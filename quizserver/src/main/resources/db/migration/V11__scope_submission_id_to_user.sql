@@ -0,0 +1,6 @@
+-- Submission ids are generated by clients, so they are only unique per user: two users sending the
+-- same id must both be stored. ON CONFLICT (user_id, submission_id) DO NOTHING matches this index
+
+DROP INDEX IF EXISTS uk_test_result_submission_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_test_result_user_submission_id ON test_result (user_id, submission_id);
@@ -0,0 +1,6 @@
+-- Content versions come from a sequence: max(content_version) + 1 gave two concurrent changes the
+-- same version under READ COMMITTED, so the catalog ETag did not move for the second one
+
+CREATE SEQUENCE IF NOT EXISTS test_content_version_seq START WITH 1;
+
+SELECT setval('test_content_version_seq', (SELECT COALESCE(MAX(content_version), 0) + 1 FROM test), false);
@@ -0,0 +1,5 @@
+-- Index question.test_id
+-- PostgreSQL does not index foreign keys automatically; catalog question counts and
+-- answer-key loading both look questions up by test
+
+CREATE INDEX IF NOT EXISTS idx_question_test_id ON question (test_id);
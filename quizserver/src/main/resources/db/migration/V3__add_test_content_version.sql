@@ -0,0 +1,10 @@
+-- Add content_version column to test table
+-- Catalog-wide logical clock bumped on test/question changes; backs ETag conditional GETs
+
+ALTER TABLE test
+ADD COLUMN IF NOT EXISTS content_version BIGINT;
+
+UPDATE test SET content_version = id WHERE content_version IS NULL;
+
+-- Index so max(content_version) and per-test version checks are single index lookups
+CREATE INDEX IF NOT EXISTS idx_test_content_version ON test (content_version);
@@ -0,0 +1,21 @@
+-- Store refresh tokens as SHA-256 hashes, one row per user
+-- Existing tokens are hashed in place so current sessions stay valid
+
+ALTER TABLE refresh_token
+ADD COLUMN IF NOT EXISTS token_hash CHAR(64);
+
+UPDATE refresh_token
+SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+WHERE token_hash IS NULL;
+
+ALTER TABLE refresh_token ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_token DROP COLUMN IF EXISTS token;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_refresh_token_token_hash ON refresh_token (token_hash);
+
+-- Keep only the newest token of each user before enforcing one row per user
+DELETE FROM refresh_token r
+USING refresh_token n
+WHERE r.user_id = n.user_id AND r.id < n.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_refresh_token_user_id ON refresh_token (user_id);
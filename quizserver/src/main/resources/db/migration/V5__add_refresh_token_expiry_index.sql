@@ -0,0 +1,4 @@
+-- Add index on refresh_token.expiry_date
+-- Lets the background sweeper find expired tokens without scanning the table
+
+CREATE INDEX IF NOT EXISTS idx_refresh_token_expiry_date ON refresh_token (expiry_date);
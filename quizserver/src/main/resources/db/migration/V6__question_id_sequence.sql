@@ -0,0 +1,6 @@
+-- Switch question ids to a pooled sequence (allocationSize = 50) so inserts can be JDBC-batched
+-- The sequence starts past the current max id; the old identity default is left in place
+
+CREATE SEQUENCE IF NOT EXISTS question_seq INCREMENT BY 50 START WITH 1;
+
+SELECT setval('question_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM question));
@@ -0,0 +1,4 @@
+-- Add composite index on test (category, id)
+-- Backs keyset pagination within a category: seek to (category, last id) and read forward
+
+CREATE INDEX IF NOT EXISTS idx_test_category_id ON test (category, id);
@@ -0,0 +1,4 @@
+-- Add composite index on test_result (user_id, id)
+-- Newest-first per-user history pages are a backward range scan of this index
+
+CREATE INDEX IF NOT EXISTS idx_test_result_user_id_id ON test_result (user_id, id);
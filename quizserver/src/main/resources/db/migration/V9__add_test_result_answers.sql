@@ -0,0 +1,4 @@
+-- Store the answer choices of each attempt, packed into one bytea per result (see PackedAnswers)
+-- Existing results keep NULL and are left out of item analytics
+
+ALTER TABLE test_result ADD COLUMN IF NOT EXISTS answers bytea;
@@ -0,0 +1,51 @@
+package com.quizserver.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The scrape endpoint is unauthenticated only on the management port; on the application port it needs a JWT.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=" + ActuatorSecurityTest.MANAGEMENT_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class ActuatorSecurityTest {
+
+    static final int MANAGEMENT_PORT = 18081;
+
+    @LocalServerPort
+    private int serverPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheusNeedsAuthenticationOnTheApplicationPort() {
+        // The application port has no actuator mappings; security rejects the request before it gets that far
+        assertEquals(HttpStatus.FORBIDDEN, status(serverPort, "/actuator/prometheus"));
+    }
+
+    @Test
+    void prometheusIsOpenOnTheManagementPort() {
+        assertEquals(HttpStatus.OK, status(MANAGEMENT_PORT, "/actuator/prometheus"));
+    }
+
+    @Test
+    void healthIsOpenOnTheManagementPort() {
+        assertEquals(HttpStatus.OK, status(MANAGEMENT_PORT, "/actuator/health"));
+    }
+
+    private HttpStatus status(int port, String path) {
+        return HttpStatus.valueOf(restTemplate.getForEntity("http://localhost:" + port + path, String.class)
+                .getStatusCode().value());
+    }
+}
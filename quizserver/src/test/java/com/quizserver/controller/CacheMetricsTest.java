@@ -0,0 +1,49 @@
+package com.quizserver.controller;
+
+import com.quizserver.repository.UserRepository;
+import com.quizserver.services.auth.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Spring-managed and standalone caches share one tag key set, so Prometheus accepts both.
+ */
+@SpringBootTest(properties = "management.server.port=")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class CacheMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void prometheusPublishesSpringAndStandaloneCaches() throws Exception {
+        String bearer = "Bearer " + jwtUtil.generateAccessToken(userRepository.findFirstByEmail("admin@gmail.com"));
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("cache_gets_total{cache=\"testDetails\",cache_manager=\"cacheManager\",name=\"testDetails\""),
+                "testDetails missing from:\n" + scrape);
+        assertTrue(scrape.contains("cache_gets_total{cache=\"testPages\",cache_manager=\"cacheManager\",name=\"testPages\""));
+        assertTrue(scrape.contains("cache_gets_total{cache=\"answerKeys\",cache_manager=\"standalone\",name=\"answerKeys\""));
+        assertTrue(scrape.contains("cache_gets_total{cache=\"verifiedTokens\",cache_manager=\"standalone\",name=\"verifiedTokens\""));
+    }
+}
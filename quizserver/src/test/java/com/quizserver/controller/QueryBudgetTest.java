@@ -0,0 +1,199 @@
+package com.quizserver.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.SubmitTestDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.entities.QuestionResponse;
+import com.quizserver.entities.User;
+import com.quizserver.enums.UserRole;
+import com.quizserver.repository.UserRepository;
+import com.quizserver.services.auth.JwtUtil;
+import com.quizserver.services.test.TestService;
+import com.quizserver.support.QueryBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets of the main endpoints. Every case runs against data with several tests,
+ * users and results, so loading an association per row (Test.questions in the catalog,
+ * TestResult.test/user in result lists, one question lookup per answer on submit) exceeds the
+ * budget. Budgets are for cold caches; a cache hit only lowers the count.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    private static final int TESTS = 3;
+
+    private static final int QUESTIONS = 5;
+
+    private static final int USERS = 3;
+
+    // Verifying a bearer token loads its user once; later requests with the same token hit the token cache
+    private static final int AUTH = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final List<Long> testIds = new ArrayList<>();
+
+    private final List<List<Long>> questionIds = new ArrayList<>();
+
+    private final List<User> users = new ArrayList<>();
+
+    private String bearer;
+
+    @BeforeEach
+    void createData() {
+        for (int t = 0; t < TESTS; t++) {
+            createTest();
+        }
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setName("Budget user " + u);
+            user.setEmail(UUID.randomUUID() + "@budget.test");
+            user.setPassword("unused");
+            user.setRole(UserRole.USER);
+            users.add(userRepository.save(user));
+        }
+        for (User user : users) {
+            for (int t = 0; t < TESTS; t++) {
+                testService.submitTest(submission(t, user.getId()));
+            }
+        }
+        bearer = "Bearer " + jwtUtil.generateAccessToken(userRepository.findFirstByEmail("admin@gmail.com"));
+    }
+
+    @Test
+    void catalogPage() throws Exception {
+        mockMvc.perform(get("/api/test").param("size", "2").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 3));
+    }
+
+    @Test
+    void catalogKeysetPage() throws Exception {
+        mockMvc.perform(get("/api/test").param("cursor", "").param("category", "Budget")
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 2));
+    }
+
+    @Test
+    void testDetails() throws Exception {
+        mockMvc.perform(get("/api/test/" + testIds.get(0)).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 3));
+    }
+
+    @Test
+    void submitTest() throws Exception {
+        // Not submitted yet, so the answer key is loaded by this request
+        SubmitTestDTO submission = submission(createTest(), users.get(0).getId());
+        mockMvc.perform(post("/api/test/submit-test").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(submission)))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 4));
+    }
+
+    @Test
+    void allTestResults() throws Exception {
+        mockMvc.perform(get("/api/test/test-results").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 1));
+    }
+
+    @Test
+    void testResultsPage() throws Exception {
+        mockMvc.perform(get("/api/test/test-results").param("cursor", "").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 1));
+    }
+
+    @Test
+    void userTestResults() throws Exception {
+        mockMvc.perform(get("/api/test/test-results/" + users.get(0).getId()).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 1));
+    }
+
+    @Test
+    void profile() throws Exception {
+        mockMvc.perform(get("/api/users/profile").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(AUTH + 1));
+    }
+
+    @Test
+    void serviceLevelBudget() throws Exception {
+        QueryBudget.atMost(1, () -> testService.getAllTestResultsByUser(users.get(1).getId(), testIds.get(2)));
+    }
+
+    // Returns the index of the new test in testIds
+    private int createTest() {
+        TestDTO test = new TestDTO();
+        test.setTitle("Budget " + UUID.randomUUID());
+        test.setTime(10L);
+        test.setCategory("Budget");
+        Long testId = testService.createTest(test).getId();
+        List<Long> ids = new ArrayList<>();
+        for (int q = 0; q < QUESTIONS; q++) {
+            QuestionDTO question = new QuestionDTO();
+            question.setId(testId);
+            question.setQuestionText("Question " + q);
+            question.setOptionA("a");
+            question.setOptionB("b");
+            question.setOptionC("c");
+            question.setOptionD("d");
+            question.setCorrectOption("A");
+            ids.add(testService.addQuestionToTest(question).getId());
+        }
+        testIds.add(testId);
+        questionIds.add(ids);
+        return testIds.size() - 1;
+    }
+
+    private SubmitTestDTO submission(int test, Long userId) {
+        List<QuestionResponse> responses = new ArrayList<>();
+        for (int q = 0; q < QUESTIONS; q++) {
+            QuestionResponse response = new QuestionResponse();
+            response.setQuestionId(questionIds.get(test).get(q));
+            response.setSelectedOption(q % 2 == 0 ? "A" : "B");
+            responses.add(response);
+        }
+        SubmitTestDTO submission = new SubmitTestDTO();
+        submission.setTestId(testIds.get(test));
+        submission.setUserId(userId);
+        submission.setResponses(responses);
+        return submission;
+    }
+}
@@ -0,0 +1,109 @@
+package com.quizserver.controller;
+
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.repository.UserRepository;
+import com.quizserver.services.auth.JwtUtil;
+import com.quizserver.services.test.TestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TestDetailsEncodingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String bearer;
+
+    private Long testId;
+
+    @BeforeEach
+    void createTest() {
+        TestDTO test = new TestDTO();
+        test.setTitle("Encoding " + UUID.randomUUID());
+        testId = testService.createTest(test).getId();
+        QuestionDTO question = new QuestionDTO();
+        question.setId(testId);
+        question.setQuestionText("Only question");
+        question.setCorrectOption("A");
+        testService.addQuestionToTest(question);
+        bearer = "Bearer " + jwtUtil.generateAccessToken(userRepository.findFirstByEmail("admin@gmail.com"));
+    }
+
+    @Test
+    void acceptsGzipHonoursQualityValues() {
+        assertTrue(TestController.acceptsGzip("gzip"));
+        assertTrue(TestController.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(TestController.acceptsGzip("x-gzip"));
+        assertTrue(TestController.acceptsGzip("br;q=1, *;q=0.1"));
+        assertFalse(TestController.acceptsGzip(null));
+        assertFalse(TestController.acceptsGzip("identity"));
+        assertFalse(TestController.acceptsGzip("gzip;q=0"));
+        assertFalse(TestController.acceptsGzip("gzip; q=0.000"));
+        assertFalse(TestController.acceptsGzip("*, gzip;q=0"));
+        assertFalse(TestController.acceptsGzip("gzipx, notgzip"));
+        assertFalse(TestController.acceptsGzip("gzip;q=abc"));
+    }
+
+    @Test
+    void eachEncodingHasItsOwnETag() throws Exception {
+        MvcResult identity = fetch("identity");
+        MvcResult gzip = fetch("gzip");
+        MvcResult refused = fetch("gzip;q=0");
+
+        assertNull(identity.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzip.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(refused.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        String identityTag = identity.getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipTag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(identityTag, gzipTag);
+        assertEquals(identityTag, refused.getResponse().getHeader(HttpHeaders.ETAG));
+        assertFalse(gzipTag.startsWith("W/"));
+
+        // The other encoding's tag does not validate this one
+        mockMvc.perform(get("/api/test/" + testId).header("Authorization", bearer)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "identity")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/test/" + testId).header("Authorization", bearer)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private MvcResult fetch(String acceptEncoding) throws Exception {
+        return mockMvc.perform(get("/api/test/" + testId).header("Authorization", bearer)
+                        .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+    }
+}
@@ -0,0 +1,89 @@
+package com.quizserver.repository;
+
+import com.quizserver.config.ContentVersionSequenceInitializer;
+import com.quizserver.entities.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Runs outside the test transaction so the two bumps commit on their own, like two requests.
+ */
+@DataJpaTest
+@Import(ContentVersionSequenceInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+class ContentVersionTest {
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteTests() {
+        testRepository.deleteAllById(created);
+    }
+
+    @org.junit.jupiter.api.Test
+    void concurrentBumpsGetDistinctVersions() throws Exception {
+        long first = create("Concurrent A");
+        long second = create("Concurrent B");
+        long before = testRepository.findCatalogVersion();
+
+        // Both transactions have bumped before either commits, so neither sees the other's version
+        CyclicBarrier bothBumped = new CyclicBarrier(2);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> bumpFirst = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            testRepository.bumpContentVersion(first);
+            await(bothBumped);
+        }));
+        CompletableFuture<Void> bumpSecond = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            testRepository.bumpContentVersion(second);
+            await(bothBumped);
+        }));
+        CompletableFuture.allOf(bumpFirst, bumpSecond).get(30, TimeUnit.SECONDS);
+
+        long firstVersion = testRepository.findContentVersionById(first).orElseThrow();
+        long secondVersion = testRepository.findContentVersionById(second).orElseThrow();
+        assertNotEquals(firstVersion, secondVersion);
+        assertEquals(Math.max(firstVersion, secondVersion), testRepository.findCatalogVersion());
+        assertEquals(before + 2, testRepository.findCatalogVersion());
+    }
+
+    private long create(String title) {
+        Test test = new Test();
+        test.setTitle(title);
+        test.setCategory("Math");
+        long id = testRepository.save(test).getId();
+        testRepository.bumpContentVersion(id);
+        created.add(id);
+        return id;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.quizserver.repository;
+
+import com.quizserver.entities.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class TestRepositoryTest {
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @BeforeEach
+    void createTests() {
+        for (String title : List.of("Score 100% guaranteed", "Score 1000 points", "a_b notation", "axb notation",
+                "Wow! Physics", "Wow Physics")) {
+            Test test = new Test();
+            test.setTitle(title);
+            test.setCategory(title.startsWith("Wow") ? "Science" : "Math");
+            testRepository.save(test);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void titleSearchMatchesWildcardCharactersLiterally() {
+        assertEquals(List.of("Score 100% guaranteed"), titles("100%"));
+        assertEquals(List.of("a_b notation"), titles("A_B"));
+        assertEquals(List.of("Wow! Physics"), titles("wow!"));
+        assertEquals(List.of("Score 100% guaranteed", "Score 1000 points"), titles("score 100"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void countsAndCategoryFilterUseTheSameEscaping() {
+        assertEquals(1, testRepository.countByTitle("100%"));
+        assertEquals(1, testRepository.countByCategoryAndTitle("Math", "_b"));
+        assertEquals(0, testRepository.countByCategoryAndTitle("Science", "_b"));
+        assertEquals(1, testRepository.findSummariesByTitleAfter("%", 0, PageRequest.of(0, 10)).size());
+    }
+
+    private List<String> titles(String search) {
+        return testRepository.findSummariesByTitle(search, PageRequest.of(0, 10)).getContent().stream()
+                .map(TestRepository.TestSummary::getTitle)
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.quizserver.services.auth;
+
+import com.quizserver.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuthAttemptThrottleTest {
+
+    private static final String EMAIL = "student@example.com";
+
+    private final AuthAttemptThrottle throttle = new AuthAttemptThrottle(3, 0, Duration.ofMinutes(1));
+
+    @Test
+    void successfulAttemptsAreNeverThrottled() {
+        for (int i = 0; i < 50; i++) {
+            throttle.check(EMAIL, "10.0.0.1");
+            throttle.succeeded(EMAIL, "10.0.0.1");
+        }
+    }
+
+    @Test
+    void failuresAreLimitedAndClearedBySuccess() {
+        for (int i = 0; i < 3; i++) {
+            throttle.check(EMAIL, "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.check(" Student@Example.com ", "10.0.0.1"));
+
+        throttle.succeeded(EMAIL, "10.0.0.1");
+        assertDoesNotThrow(() -> throttle.check(EMAIL, "10.0.0.1"));
+    }
+
+    @Test
+    void rotatingAddressesDoNotResetTheAccountLimit() {
+        for (int i = 0; i < 3; i++) {
+            throttle.check(EMAIL, "203.0.113." + i);
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.check(EMAIL, "198.51.100.1"));
+        assertDoesNotThrow(() -> throttle.check("other@example.com", "198.51.100.1"));
+    }
+
+    @Test
+    void addressLimitCoversEveryAccount() {
+        AuthAttemptThrottle withAddressLimit = new AuthAttemptThrottle(3, 4, Duration.ofMinutes(1));
+        for (int i = 0; i < 4; i++) {
+            withAddressLimit.check("user" + i + "@example.com", "203.0.113.7");
+        }
+        assertThrows(TooManyRequestsException.class, () -> withAddressLimit.check("fresh@example.com", "203.0.113.7"));
+        assertDoesNotThrow(() -> withAddressLimit.check("fresh@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void successesDoNotCountAgainstTheAddress() {
+        AuthAttemptThrottle withAddressLimit = new AuthAttemptThrottle(3, 2, Duration.ofMinutes(1));
+        for (int i = 0; i < 10; i++) {
+            withAddressLimit.check("user" + i + "@example.com", "10.0.0.1");
+            withAddressLimit.succeeded("user" + i + "@example.com", "10.0.0.1");
+        }
+        assertDoesNotThrow(() -> withAddressLimit.check(EMAIL, "10.0.0.1"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.quizserver.services.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthenticatedTokenCacheTest {
+
+    private static final int MAX_SIZE = 10;
+
+    private final AuthenticatedTokenCache cache = new AuthenticatedTokenCache(new SimpleMeterRegistry(), MAX_SIZE);
+
+    private final Date expiration = new Date(System.currentTimeMillis() + 60_000);
+
+    @Test
+    void revocationsOutliveTheCacheSize() throws InterruptedException {
+        int tokens = MAX_SIZE * 100;
+        for (int i = 0; i < tokens; i++) {
+            cache.revoke("token-" + i, expiration);
+        }
+        // Size eviction runs asynchronously; give it time to run if it were configured
+        Thread.sleep(200);
+
+        for (int i = 0; i < tokens; i++) {
+            assertTrue(cache.isRevoked("token-" + i), "token-" + i);
+        }
+    }
+
+    @Test
+    void revokedTokensAreNotCachedAgain() {
+        UserDetails user = User.withUsername("student@example.com").password("unused").authorities(List.of()).build();
+        cache.revoke("logged-out", expiration);
+
+        cache.put("logged-out", user, expiration, cache.generation());
+
+        assertNull(cache.get("logged-out"));
+    }
+
+    @Test
+    void principalLoadedBeforeAnEvictionIsNotCached() {
+        UserDetails user = User.withUsername("student@example.com").password("unused").authorities(List.of()).build();
+        long generation = cache.generation();
+
+        // The profile change commits while the principal is being loaded
+        cache.evictUser("student@example.com");
+        cache.put("token", user, expiration, generation);
+
+        assertNull(cache.get("token"));
+        cache.put("token", user, expiration, cache.generation());
+        assertNotNull(cache.get("token"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.quizserver.services.auth;
+
+import com.quizserver.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private static final long HASH_MILLIS = 300;
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final Set<String> hashed = ConcurrentHashMap.newKeySet();
+
+    // "block" holds the only hashing thread until released; everything else takes HASH_MILLIS
+    private final PasswordEncoder encoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashed.add(rawPassword.toString());
+            try {
+                if ("block".contentEquals(rawPassword)) {
+                    entered.countDown();
+                    release.await();
+                } else {
+                    Thread.sleep(HASH_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    private final PasswordHashingService service =
+            new PasswordHashingService(encoder, new SimpleMeterRegistry(), 1, 10, 500);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void jobThatCannotFinishInTimeIsRejectedBeforeQueueing() throws Exception {
+        assertEquals("hash", service.encode("prime"));
+
+        CompletableFuture.runAsync(() -> service.encode("block"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        // One hash ahead of it (the blocked one does not count yet): admitted
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> {
+            try {
+                service.encode("queued");
+            } catch (TooManyRequestsException e) {
+                // Times out behind the blocked hash; it was still queued, so cancelling drops it
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.expectedWaitMillis() < 2 * HASH_MILLIS && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        long start = System.nanoTime();
+        assertThrows(TooManyRequestsException.class, () -> service.encode("rejected"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500, "rejected without waiting");
+
+        release.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+        assertFalse(hashed.contains("rejected"));
+    }
+
+    @Test
+    void idlePoolAdmitsEveryJob() {
+        assertEquals("hash", service.encode("first"));
+        assertEquals(HASH_MILLIS, service.expectedWaitMillis(), 100);
+        assertTrue(service.matches("second", "hash"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.quizserver.services.auth;
+
+import com.quizserver.dto.UserDTO;
+import com.quizserver.entities.User;
+import com.quizserver.enums.UserRole;
+import com.quizserver.repository.UserRepository;
+import com.quizserver.services.user.UserDetailsServiceImpl;
+import com.quizserver.services.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Cached principals survive until the change that makes them stale commits, and no longer.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenCacheEvictionTest {
+
+    private static final String TOKEN = "cached-token";
+
+    @Autowired
+    private AuthenticatedTokenCache tokenCache;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    void cachePrincipal() {
+        user = new User();
+        user.setName("Cached");
+        user.setEmail(UUID.randomUUID() + "@cache.test");
+        user.setPassword("unused");
+        user.setRole(UserRole.USER);
+        user = userRepository.save(user);
+        tokenCache.put(TOKEN, userDetailsService.loadUserByUsername(user.getEmail()),
+                new Date(System.currentTimeMillis() + 60_000), tokenCache.generation());
+    }
+
+    @Test
+    void roleChangeEvictsAfterCommit() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User stored = userRepository.findById(user.getId()).orElseThrow();
+            stored.setRole(UserRole.ADMIN);
+            userRepository.flush();
+            assertNotNull(tokenCache.get(TOKEN));
+        });
+
+        assertNull(tokenCache.get(TOKEN));
+    }
+
+    @Test
+    void deletionEvictsAfterCommit() {
+        userRepository.deleteById(user.getId());
+
+        assertNull(tokenCache.get(TOKEN));
+    }
+
+    @Test
+    void emailChangeEvicts() {
+        UserDTO update = new UserDTO();
+        update.setEmail(UUID.randomUUID() + "@cache.test");
+
+        userService.updateUserProfile(user.getEmail(), update);
+
+        assertNull(tokenCache.get(TOKEN));
+    }
+
+    @Test
+    void nameChangeKeepsThePrincipal() {
+        UserDTO update = new UserDTO();
+        update.setName("Renamed");
+
+        userService.updateUserProfile(user.getEmail(), update);
+
+        assertNotNull(tokenCache.get(TOKEN));
+    }
+
+    @Test
+    void rolledBackChangeKeepsThePrincipal() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            User stored = userRepository.findById(user.getId()).orElseThrow();
+            stored.setRole(UserRole.ADMIN);
+            userRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertNotNull(tokenCache.get(TOKEN));
+    }
+}
@@ -0,0 +1,112 @@
+package com.quizserver.services.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizserver.dto.TestResultDTO;
+import com.quizserver.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSubmissionServiceTest {
+
+    private static final long STORED_TEST_ID = 99L;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AsyncSubmissionService service;
+
+    @AfterEach
+    void stop() throws Exception {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void resendForTheSameTestReturnsTheFirstReceipt() throws IOException {
+        service = start(new StoresNothing());
+        TestResultDTO first = service.submit(submission(1L, "resent"));
+
+        assertSame(first, service.submit(submission(1L, "resent")));
+    }
+
+    @Test
+    void reusedIdForAnotherTestIsAConflict() throws IOException {
+        service = start(new StoresNothing());
+        service.submit(submission(1L, "reused"));
+
+        assertThrows(ConflictException.class, () -> service.submit(submission(2L, "reused")));
+    }
+
+    @Test
+    void rowDroppedByAConflictWithAnotherTestIsDeadLettered() throws Exception {
+        // The row with this user and id was stored for another test before the dedup entry expired
+        service = start(new StoresNothing());
+        service.submit(submission(1L, "expired"));
+
+        List<String> lines = awaitDeadLetters();
+        assertEquals(1, lines.size());
+        JsonNode line = objectMapper.readTree(lines.get(0));
+        assertEquals("expired", line.get("submissionId").asText());
+        assertEquals(1L, line.get("testId").asLong());
+        assertEquals(3, line.get("correctAnswers").asInt());
+        assertTrue(line.get("reason").asText().contains(String.valueOf(STORED_TEST_ID)));
+    }
+
+    private AsyncSubmissionService start(JdbcTemplate jdbcTemplate) throws IOException {
+        return new AsyncSubmissionService(jdbcTemplate, null, null, new SimpleMeterRegistry(), objectMapper,
+                directory.resolve("journal"), deadLetterFile(), 1 << 20, false, 100, 10, 1, 10,
+                Duration.ofMinutes(10), 5_000);
+    }
+
+    private List<String> awaitDeadLetters() throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            List<String> lines = Files.readAllLines(deadLetterFile());
+            if (!lines.isEmpty()) {
+                return lines;
+            }
+            Thread.sleep(20);
+        }
+        return List.of();
+    }
+
+    private Path deadLetterFile() {
+        return directory.resolve("dead-letter.ndjson");
+    }
+
+    private static GradedSubmission submission(Long testId, String submissionId) {
+        return new GradedSubmission(submissionId, testId, "Test " + testId, 7L, "Submitter", 4, 3, 75.0,
+                new byte[]{1, 2});
+    }
+
+    // Every insert hits the unique index, where the stored row belongs to STORED_TEST_ID
+    private static class StoresNothing extends JdbcTemplate {
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            return List.of();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            return (List<T>) List.of(STORED_TEST_ID);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.quizserver.services.test;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheLoadsTest {
+
+    private static final Executor TASK_EXECUTOR = command -> {
+        throw new AssertionError("Platform-thread loads must not be handed to the task executor");
+    };
+
+    @Test
+    void platformThreadLoadsRunOnTheCallersThread() {
+        Executor executor = CacheLoads.executor(new MockEnvironment(), TASK_EXECUTOR);
+
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> load = CompletableFuture.supplyAsync(Thread::currentThread, executor);
+
+        assertTrue(load.isDone());
+        assertSame(caller, CacheLoads.join(load));
+    }
+
+    @Test
+    void virtualThreadLoadsUseTheTaskExecutorOnlyWhereVirtualThreadsExist() {
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+
+        Executor executor = CacheLoads.executor(environment, TASK_EXECUTOR);
+
+        // The property is ignored before Java 21, where the task executor still runs on platform threads
+        assertEquals(Runtime.version().feature() >= 21, executor == TASK_EXECUTOR);
+    }
+
+    @Test
+    void joinRethrowsTheLoadFailureUnwrapped() {
+        IllegalStateException failure = new IllegalStateException("load failed");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> CacheLoads.join(CompletableFuture.failedFuture(failure))));
+    }
+}
@@ -0,0 +1,80 @@
+package com.quizserver.services.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedAnswersTest {
+
+    @Test
+    void roundTripsLargeIdGapsInMultiByteVarints() {
+        long[] questionIds = {1, 2, 200, 1_000_000, 5_000_000_000L};
+        AnswerKey key = new AnswerKey(1L, "Packed", questionIds, new byte[]{0, 1, 2, 3, 0});
+        byte[] selections = {0, 2, 2, 3, 1};
+
+        byte[] packed = PackedAnswers.pack(key, selections);
+
+        // Deltas 1 and 1 fit one byte each; 198, 999800 and 4999000000 need 2, 4 and 6 bytes
+        assertEquals(1 + 1 + 2 + 4 + 6, packed.length);
+        assertEquals(List.of(
+                new Answer(1, (byte) 0, true),
+                new Answer(2, (byte) 2, false),
+                new Answer(200, (byte) 2, true),
+                new Answer(1_000_000, (byte) 3, true),
+                new Answer(5_000_000_000L, (byte) 1, false)), unpack(packed));
+    }
+
+    @Test
+    void otherChoiceIsNeverCorrectAndUnansweredIsSkipped() {
+        long[] questionIds = {10, 11, 12, 13};
+        // Question 12 has no valid correct option either, which must not make OTHER count as correct
+        AnswerKey key = new AnswerKey(1L, "Packed", questionIds,
+                new byte[]{0, 1, AnswerKey.NO_OPTION, 3});
+        byte[] selections = {AnswerKey.NO_OPTION, AnswerKey.UNANSWERED, AnswerKey.NO_OPTION, 3};
+
+        assertEquals(List.of(
+                new Answer(10, AnswerKey.NO_OPTION, false),
+                new Answer(12, AnswerKey.NO_OPTION, false),
+                new Answer(13, (byte) 3, true)), unpack(PackedAnswers.pack(key, selections)));
+    }
+
+    @Test
+    void nothingAnsweredPacksToNoBytes() {
+        AnswerKey key = new AnswerKey(1L, "Packed", new long[]{1, 2}, new byte[]{0, 1});
+
+        byte[] packed = PackedAnswers.pack(key, new byte[]{AnswerKey.UNANSWERED, AnswerKey.UNANSWERED});
+
+        assertEquals(0, packed.length);
+        assertEquals(List.of(), unpack(packed));
+    }
+
+    @Test
+    void truncatedVarintIsRejected() {
+        AnswerKey key = new AnswerKey(1L, "Packed", new long[]{1, 500}, new byte[]{0, 1});
+        byte[] packed = PackedAnswers.pack(key, new byte[]{0, 1});
+        byte[] truncated = Arrays.copyOf(packed, packed.length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> unpack(truncated));
+    }
+
+    @Test
+    void overlongVarintIsRejected() {
+        byte[] overlong = new byte[11];
+        Arrays.fill(overlong, (byte) 0xff);
+
+        assertThrows(IllegalArgumentException.class, () -> unpack(overlong));
+    }
+
+    private static List<Answer> unpack(byte[] packed) {
+        List<Answer> answers = new ArrayList<>();
+        PackedAnswers.forEach(packed, (questionId, choice, correct) -> answers.add(new Answer(questionId, choice, correct)));
+        return answers;
+    }
+
+    private record Answer(long questionId, byte choice, boolean correct) {
+    }
+}
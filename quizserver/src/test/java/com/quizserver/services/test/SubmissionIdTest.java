@@ -0,0 +1,134 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.SubmitTestDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.dto.TestResultDTO;
+import com.quizserver.entities.QuestionResponse;
+import com.quizserver.entities.User;
+import com.quizserver.enums.UserRole;
+import com.quizserver.exception.ConflictException;
+import com.quizserver.repository.TestResultReponsitory;
+import com.quizserver.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SubmissionIdTest {
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestResultReponsitory testResultReponsitory;
+
+    private Long testId;
+
+    private Long questionId;
+
+    @BeforeEach
+    void createTest() {
+        testId = createTestWithOneQuestion();
+    }
+
+    @Test
+    void sameSubmissionIdOfDifferentUsersIsStoredForEach() {
+        String submissionId = UUID.randomUUID().toString();
+        Long first = testService.submitTest(submission(createUser(), submissionId)).getId();
+        Long second = testService.submitTest(submission(createUser(), submissionId)).getId();
+
+        assertNotEquals(first, second);
+        assertEquals(2, storedRows(submissionId));
+    }
+
+    @Test
+    void concurrentResendsOfOneUserStoreOneResult() throws Exception {
+        Long userId = createUser();
+        String submissionId = UUID.randomUUID().toString();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        try {
+            List<Future<TestResultDTO>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return testService.submitTest(submission(userId, submissionId));
+                }));
+            }
+            Long id = results.get(0).get(30, TimeUnit.SECONDS).getId();
+            for (Future<TestResultDTO> result : results) {
+                assertEquals(id, result.get(30, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, storedRows(submissionId));
+    }
+
+    @Test
+    void submissionIdReusedForAnotherTestIsAConflict() {
+        Long userId = createUser();
+        String submissionId = UUID.randomUUID().toString();
+        Long id = testService.submitTest(submission(userId, submissionId)).getId();
+        SubmitTestDTO otherTest = submission(userId, submissionId);
+        otherTest.setTestId(createTestWithOneQuestion());
+
+        assertThrows(ConflictException.class, () -> testService.submitTest(otherTest));
+        assertEquals(id, testService.submitTest(submission(userId, submissionId)).getId());
+        assertEquals(1, storedRows(submissionId));
+    }
+
+    private long storedRows(String submissionId) {
+        return testResultReponsitory.findAll().stream()
+                .filter(result -> submissionId.equals(result.getSubmissionId()))
+                .count();
+    }
+
+    private Long createTestWithOneQuestion() {
+        TestDTO test = new TestDTO();
+        test.setTitle("Submission ids " + UUID.randomUUID());
+        Long id = testService.createTest(test).getId();
+        QuestionDTO question = new QuestionDTO();
+        question.setId(id);
+        question.setQuestionText("Only question");
+        question.setCorrectOption("A");
+        questionId = testService.addQuestionToTest(question).getId();
+        return id;
+    }
+
+    private Long createUser() {
+        User user = new User();
+        user.setName("Submitter");
+        user.setEmail(UUID.randomUUID() + "@submission.test");
+        user.setPassword("unused");
+        user.setRole(UserRole.USER);
+        return userRepository.save(user).getId();
+    }
+
+    private SubmitTestDTO submission(Long userId, String submissionId) {
+        QuestionResponse response = new QuestionResponse();
+        response.setQuestionId(questionId);
+        response.setSelectedOption("A");
+        SubmitTestDTO submission = new SubmitTestDTO();
+        submission.setSubmissionId(submissionId);
+        submission.setTestId(testId);
+        submission.setUserId(userId);
+        submission.setResponses(List.of(response));
+        return submission;
+    }
+}
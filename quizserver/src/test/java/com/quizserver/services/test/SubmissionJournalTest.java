@@ -0,0 +1,118 @@
+package com.quizserver.services.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubmissionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void uncompletedRecordsAreRecoveredAfterRestart() throws IOException {
+        SubmissionJournal journal = new SubmissionJournal(directory, 1 << 20, true);
+        assertTrue(journal.recover().isEmpty());
+        long first = journal.append(bytes("first"));
+        journal.append(bytes("second"));
+        journal.complete(first);
+        journal.close();
+
+        SubmissionJournal reopened = new SubmissionJournal(directory, 1 << 20, true);
+        // Records are only dropped with their whole segment, so both are still there
+        assertEquals(List.of("first", "second"), strings(reopened.recover()));
+        reopened.close();
+    }
+
+    @Test
+    void tornTailIsDiscarded() throws IOException {
+        SubmissionJournal journal = new SubmissionJournal(directory, 1 << 20, true);
+        journal.recover();
+        journal.append(bytes("kept"));
+        journal.close();
+
+        // A crash in the middle of an append: length and checksum written, payload cut short
+        Path segment = segments().get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 'x'}, StandardOpenOption.APPEND);
+
+        SubmissionJournal reopened = new SubmissionJournal(directory, 1 << 20, true);
+        assertEquals(List.of("kept"), strings(reopened.recover()));
+        reopened.close();
+    }
+
+    @Test
+    void completedSegmentsAreDeleted() throws IOException {
+        // Every append rolls over to a new segment
+        SubmissionJournal journal = new SubmissionJournal(directory, 1, false);
+        journal.recover();
+        List<Long> segmentIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            segmentIds.add(journal.append(bytes("record " + i)));
+        }
+        assertEquals(5, segments().size());
+
+        for (long segmentId : segmentIds) {
+            journal.complete(segmentId);
+        }
+        // Only the active segment remains, and it goes away on close since it is fully completed
+        assertEquals(1, segments().size());
+        journal.close();
+        assertTrue(segments().isEmpty());
+    }
+
+    @Test
+    void concurrentAppendsAreAllDurable() throws Exception {
+        SubmissionJournal journal = new SubmissionJournal(directory, 64 * 1024, true);
+        journal.recover();
+
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    journal.append(bytes(thread + ":" + i));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        journal.close();
+
+        SubmissionJournal reopened = new SubmissionJournal(directory, 64 * 1024, true);
+        List<String> recovered = strings(reopened.recover());
+        reopened.close();
+        assertEquals(threads * perThread, recovered.size());
+        assertEquals(threads * perThread, recovered.stream().distinct().count());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<SubmissionJournal.Record> records) {
+        return records.stream().map(record -> new String(record.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.entities.Question;
+import com.quizserver.repository.QuestionRepository;
+import com.quizserver.repository.TestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TestDetailsPayloadCacheTest {
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private TestDetailsPayloadCache payloadCache;
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Test
+    void newVersionIsNeverBuiltFromStaleCachedDetails() {
+        TestDTO test = new TestDTO();
+        test.setTitle("Payload cache");
+        Long testId = testService.createTest(test).getId();
+        QuestionDTO first = new QuestionDTO();
+        first.setId(testId);
+        first.setQuestionText("first question");
+        first.setCorrectOption("A");
+        testService.addQuestionToTest(first);
+
+        // Warm the testDetails cache, then change the content without evicting it, as a request
+        // served between the version bump and the eviction would see it
+        assertEquals(1, testService.getAllQuestionsByTest(testId).getQuestions().size());
+        Question second = new Question();
+        second.setQuestionText("second question");
+        second.setCorrectOption("B");
+        second.setTest(testRepository.getReferenceById(testId));
+        questionRepository.save(second);
+        testRepository.bumpContentVersion(testId);
+        long version = testService.getTestVersion(testId);
+
+        TestDetailsPayloadCache.Payload payload = payloadCache.get(testId, version);
+
+        assertEquals(version, payload.version());
+        assertTrue(new String(payload.json(), StandardCharsets.UTF_8).contains("second question"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.QuestionAnalyticsDTO;
+import com.quizserver.dto.TestItemAnalyticsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestItemStatsTest {
+
+    private static final long QUESTION = 7;
+
+    private static final AnswerKey KEY = new AnswerKey(1L, "Item stats", new long[]{QUESTION}, new byte[]{0});
+
+    @Test
+    void discriminationMatchesHandComputedPointBiserial() {
+        TestItemStats stats = new TestItemStats(1L);
+        // Correct at 90, 70 and 30; wrong at 60 and 50
+        record(stats, 90, (byte) 0);
+        record(stats, 70, (byte) 0);
+        record(stats, 60, (byte) 1);
+        record(stats, 30, (byte) 0);
+        record(stats, 50, AnswerKey.NO_OPTION);
+
+        // M1 = 190/3, M0 = 55, mean = 60, population s = sqrt(2000/5) = 20, p = 0.6:
+        // r_pb = (190/3 - 55) / 20 * sqrt(0.6 * 0.4) = 0.2041241...
+        QuestionAnalyticsDTO question = stats.question(QUESTION);
+        assertEquals(0.2041241452, question.getDiscrimination(), 1e-9);
+        assertEquals(5, question.getResponses());
+        assertEquals(3, question.getCorrectResponses());
+        assertEquals(0.6, question.getDifficulty(), 1e-12);
+        assertEquals(Map.of("A", 3L, "B", 1L, "C", 0L, "D", 0L, "OTHER", 1L), question.getChoiceCounts());
+    }
+
+    @Test
+    void discriminationIsUndefinedWhenEveryoneAnsweredAlike() {
+        TestItemStats stats = new TestItemStats(1L);
+        record(stats, 100, (byte) 0);
+        record(stats, 40, (byte) 0);
+
+        assertNull(stats.question(QUESTION).getDiscrimination());
+    }
+
+    @Test
+    void discriminationIsUndefinedWithoutScoreVariance() {
+        TestItemStats stats = new TestItemStats(1L);
+        record(stats, 50, (byte) 0);
+        record(stats, 50, (byte) 2);
+
+        assertNull(stats.question(QUESTION).getDiscrimination());
+    }
+
+    @Test
+    void snapshotCountsAttemptsWithoutAnswers() {
+        TestItemStats stats = new TestItemStats(1L);
+        record(stats, 100, (byte) 0);
+        record(stats, 0, AnswerKey.UNANSWERED);
+
+        TestItemAnalyticsDTO snapshot = stats.snapshot();
+        assertEquals(2, snapshot.getAttempts());
+        assertEquals(1, snapshot.getQuestions().size());
+        assertEquals(1, snapshot.getQuestions().get(0).getResponses());
+        assertNull(stats.question(QUESTION + 1));
+    }
+
+    private static void record(TestItemStats stats, double percentage, byte selection) {
+        stats.record(percentage, PackedAnswers.pack(KEY, new byte[]{selection}));
+    }
+}
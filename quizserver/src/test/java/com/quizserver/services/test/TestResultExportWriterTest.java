@@ -0,0 +1,54 @@
+package com.quizserver.services.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizserver.dto.TestResultDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TestResultExportWriterTest {
+
+    private final TestResultExportWriter writer = new TestResultExportWriter(new ObjectMapper());
+
+    @Test
+    void ndjsonHasOneObjectPerLineWithoutSeparatorSpaces() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = writer.write(Stream.of(
+                new TestResultDTO(1L, 4, 3, 75.0, "Algebra", "Ann"),
+                new TestResultDTO(2L, 4, 4, 100.0, "Algebra", "Bob"),
+                new TestResultDTO(3L, 2, 0, 0.0, "Physics", "Ann")), output, TestResultExportWriter.Format.NDJSON);
+
+        assertEquals(3, count);
+        assertEquals(
+                "{\"id\":1,\"totalQuestions\":4,\"correctAnswers\":3,\"percentage\":75.0,\"testName\":\"Algebra\",\"userName\":\"Ann\"}\n"
+                        + "{\"id\":2,\"totalQuestions\":4,\"correctAnswers\":4,\"percentage\":100.0,\"testName\":\"Algebra\",\"userName\":\"Bob\"}\n"
+                        + "{\"id\":3,\"totalQuestions\":2,\"correctAnswers\":0,\"percentage\":0.0,\"testName\":\"Physics\",\"userName\":\"Ann\"}\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void emptyExportWritesNothing() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(0, writer.write(Stream.empty(), output, TestResultExportWriter.Format.NDJSON));
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    void csvHasHeaderAndOneRowPerResult() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writer.write(Stream.of(new TestResultDTO(1L, 4, 3, 75.0, "Algebra", "Ann")), output,
+                TestResultExportWriter.Format.CSV);
+
+        assertEquals("id,totalQuestions,correctAnswers,percentage,testName,userName\n"
+                        + "1,4,3,75.0,Algebra,Ann\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+}
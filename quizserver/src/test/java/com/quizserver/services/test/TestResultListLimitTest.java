@@ -0,0 +1,117 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.PageResponse;
+import com.quizserver.dto.QuestionDTO;
+import com.quizserver.dto.SubmitTestDTO;
+import com.quizserver.dto.TestDTO;
+import com.quizserver.dto.TestResultDTO;
+import com.quizserver.entities.QuestionResponse;
+import com.quizserver.entities.User;
+import com.quizserver.enums.UserRole;
+import com.quizserver.repository.UserRepository;
+import com.quizserver.services.auth.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "quiz.results.list-limit=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TestResultListLimitTest {
+
+    @Autowired
+    private TestService testService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void listsWithoutCursorAreCappedAndNewestFirst() throws Exception {
+        TestDTO test = new TestDTO();
+        test.setTitle("List limit " + UUID.randomUUID());
+        Long testId = testService.createTest(test).getId();
+        QuestionDTO question = new QuestionDTO();
+        question.setId(testId);
+        question.setQuestionText("Only question");
+        question.setCorrectOption("A");
+        Long questionId = testService.addQuestionToTest(question).getId();
+
+        User user = new User();
+        user.setName("Lister");
+        user.setEmail(UUID.randomUUID() + "@list.test");
+        user.setPassword("unused");
+        user.setRole(UserRole.USER);
+        Long userId = userRepository.save(user).getId();
+
+        List<Long> submitted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            QuestionResponse response = new QuestionResponse();
+            response.setQuestionId(questionId);
+            response.setSelectedOption("A");
+            SubmitTestDTO submission = new SubmitTestDTO();
+            submission.setTestId(testId);
+            submission.setUserId(userId);
+            submission.setResponses(List.of(response));
+            submitted.add(testService.submitTest(submission).getId());
+        }
+
+        List<Long> newestTwo = List.of(submitted.get(2), submitted.get(1));
+        PageResponse<TestResultDTO> byUser = testService.getAllTestResultsByUser(userId, null);
+        assertEquals(newestTwo, ids(byUser));
+        assertEquals(newestTwo, ids(testService.getAllTestResultsByUser(userId, testId)));
+        assertEquals(newestTwo, ids(testService.getAllTestResults()));
+
+        // The cut list says so, and its cursor continues where it stopped
+        PageResponse<TestResultDTO> rest = testService.getTestResultsPageByUser(userId, null, byUser.getNextCursor(), 10);
+        assertEquals(List.of(submitted.get(0)), ids(rest));
+        assertNull(rest.getNextCursor());
+
+        String bearer = "Bearer " + jwtUtil.generateAccessToken(userRepository.findFirstByEmail("admin@gmail.com"));
+        mockMvc.perform(get("/api/test/test-results/" + userId).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("X-Next-Cursor", byUser.getNextCursor()));
+        mockMvc.perform(get("/api/test/test-results/" + userId).param("cursor", byUser.getNextCursor())
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+    }
+
+    @Test
+    void listsThatFitAreNotMarkedAsCut() {
+        User user = new User();
+        user.setName("Nothing yet");
+        user.setEmail(UUID.randomUUID() + "@list.test");
+        user.setPassword("unused");
+        user.setRole(UserRole.USER);
+
+        PageResponse<TestResultDTO> results = testService.getAllTestResultsByUser(userRepository.save(user).getId(), null);
+
+        assertEquals(List.of(), ids(results));
+        assertNull(results.getNextCursor());
+    }
+
+    private static List<Long> ids(PageResponse<TestResultDTO> results) {
+        return results.getContent().stream().map(TestResultDTO::getId).toList();
+    }
+}
@@ -0,0 +1,50 @@
+package com.quizserver.services.test;
+
+import com.quizserver.config.ContentVersionSequenceInitializer;
+import com.quizserver.entities.Test;
+import com.quizserver.repository.TestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Tests created through another node never reach this node's put(); they must arrive through refresh().
+ */
+@DataJpaTest
+@Import(ContentVersionSequenceInitializer.class)
+@ActiveProfiles("test")
+class TestSearchIndexRefreshTest {
+
+    @Autowired
+    private TestRepository testRepository;
+
+    @org.junit.jupiter.api.Test
+    void refreshIndexesTestsCreatedElsewhere() {
+        long algebra = createElsewhere("Algebra basics");
+        TestSearchIndex index = new TestSearchIndex(testRepository);
+        index.load();
+        assertArrayEquals(new long[]{algebra}, index.search("algebra", null));
+
+        long geometry = createElsewhere("Geometry basics");
+        assertArrayEquals(new long[]{algebra}, index.search("basics", null));
+
+        index.refresh();
+        assertArrayEquals(new long[]{algebra, geometry}, index.search("basics", null));
+        // The following refresh re-reads the same change once more and stays idempotent
+        index.refresh();
+        index.refresh();
+        assertArrayEquals(new long[]{algebra, geometry}, index.search("basics", null));
+    }
+
+    private long createElsewhere(String title) {
+        Test test = new Test();
+        test.setTitle(title);
+        test.setCategory("Math");
+        long id = testRepository.save(test).getId();
+        testRepository.bumpContentVersion(id);
+        return id;
+    }
+}
@@ -0,0 +1,127 @@
+package com.quizserver.services.test;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestSearchIndexTest {
+
+    private final TestSearchIndex index = new TestSearchIndex(null);
+
+    @Test
+    void withinOneEditAcceptsEachSingleEdit() {
+        assertTrue(TestSearchIndex.withinOneEdit("physics", "physics"));
+        assertTrue(TestSearchIndex.withinOneEdit("physucs", "physics"));
+        assertTrue(TestSearchIndex.withinOneEdit("physics", "physic"));
+        assertTrue(TestSearchIndex.withinOneEdit("phyics", "physics"));
+        assertTrue(TestSearchIndex.withinOneEdit("physicss", "physics"));
+        assertTrue(TestSearchIndex.withinOneEdit("xhysics", "physics"));
+        assertTrue(TestSearchIndex.withinOneEdit("physicx", "physics"));
+        // Adjacent transposition counts as one edit, also at the very end
+        assertTrue(TestSearchIndex.withinOneEdit("pyhsics", "physics"));
+        assertTrue(TestSearchIndex.withinOneEdit("physisc", "physics"));
+    }
+
+    @Test
+    void withinOneEditRejectsTwoEdits() {
+        assertFalse(TestSearchIndex.withinOneEdit("fhysucs", "physics"));
+        assertFalse(TestSearchIndex.withinOneEdit("phyic", "physics"));
+        assertFalse(TestSearchIndex.withinOneEdit("physicsss", "physics"));
+        assertFalse(TestSearchIndex.withinOneEdit("psyhics", "physics"));
+        assertFalse(TestSearchIndex.withinOneEdit("yphsisc", "physics"));
+    }
+
+    @Test
+    void fuzzyTokensAreFoundThroughDeletionNeighbourhoods() {
+        index.put(1, "Physics", null, "Science");
+        index.put(2, "Algebra", null, "Math");
+
+        // Not the last token, so no prefix matching: these only match through the deletion map
+        assertArrayEquals(new long[]{1}, index.search("physucs science", null));
+        assertArrayEquals(new long[]{1}, index.search("phyics science", null));
+        assertArrayEquals(new long[]{1}, index.search("physiccs science", null));
+        assertArrayEquals(new long[]{2}, index.search("algerba math", null));
+        assertArrayEquals(new long[0], index.search("fhysucs science", null));
+    }
+
+    @Test
+    void shortTokensAreNeverFuzzy() {
+        index.put(1, "Math drills", null, null);
+
+        assertArrayEquals(new long[0], index.search("mth drills", null));
+        assertArrayEquals(new long[]{1}, index.search("drills mat", null));
+    }
+
+    @Test
+    void everyTokenMustMatch() {
+        index.put(1, "Algebra basics", null, "Math");
+        index.put(2, "Geometry basics", null, "Math");
+        index.put(3, "Advanced algebra", null, "Math");
+
+        assertArrayEquals(new long[]{1}, index.search("algebra basics", null));
+        assertArrayEquals(new long[]{1, 3}, index.search("algebra math", null));
+        assertArrayEquals(new long[0], index.search("algebra chemistry", null));
+        assertArrayEquals(new long[0], index.search("", null));
+    }
+
+    @Test
+    void onlyTheLastTokenIsAPrefix() {
+        index.put(1, "Algebra basics", null, null);
+
+        assertArrayEquals(new long[]{1}, index.search("basics alg", null));
+        assertArrayEquals(new long[0], index.search("alg basics", null));
+    }
+
+    @Test
+    void rankingFollowsFieldWeightThenMatchQualityThenId() {
+        index.put(4, "Lab safety", "Intro to physics", "Lab");
+        index.put(3, "Lab safety", null, "Physics");
+        index.put(2, "Physics", null, "Lab");
+        index.put(1, "Physics", null, "Lab");
+        index.put(5, "Physiks", null, "Lab");
+
+        // Title (3) > category (2) > description (1); the fuzzy title scores 3 * 0.6 = 1.8
+        assertArrayEquals(new long[]{1, 2, 3, 5, 4}, index.search("physics", null));
+    }
+
+    @Test
+    void exactMatchOutranksPrefixMatch() {
+        index.put(1, "Chemistry", null, null);
+        index.put(2, "Chem", null, null);
+
+        assertArrayEquals(new long[]{2, 1}, index.search("chem", null));
+    }
+
+    @Test
+    void diacriticsAreIgnored() {
+        index.put(1, "Toán học", "Đại số", "Toán");
+
+        assertArrayEquals(new long[]{1}, index.search("toan hoc", null));
+        assertArrayEquals(new long[]{1}, index.search("dai so", null));
+        assertEquals(List.of("toan", "hoc"), TestSearchIndex.tokenize("Toán-học!"));
+    }
+
+    @Test
+    void categoryFilterIsExact() {
+        index.put(1, "Algebra", null, "Math");
+        index.put(2, "Algebra history", null, "History");
+
+        assertArrayEquals(new long[]{1}, index.search("algebra", "Math"));
+        assertArrayEquals(new long[0], index.search("algebra", "math"));
+        assertArrayEquals(new long[]{1, 2}, index.search("algebra", ""));
+    }
+
+    @Test
+    void putReplacesTheIndexedText() {
+        index.put(1, "Algebra", null, "Math");
+        index.put(1, "Biology", null, "Science");
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new long[0], index.search("algebra", null));
+        assertArrayEquals(new long[0], index.search("algebrx zoology", null));
+        assertArrayEquals(new long[]{1}, index.search("biology", "Science"));
+        assertArrayEquals(new long[0], index.search("biology", "Math"));
+    }
+}
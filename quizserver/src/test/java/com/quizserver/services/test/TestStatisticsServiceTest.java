@@ -0,0 +1,188 @@
+package com.quizserver.services.test;
+
+import com.quizserver.dto.LeaderboardEntryDTO;
+import com.quizserver.dto.TestStatisticsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestStatisticsServiceTest {
+
+    private static final long TEST_ID = 1L;
+
+    private static final int LEADERBOARD_SIZE = 10;
+
+    private static final int WRITERS = 8;
+
+    private static final int SUBMISSIONS_PER_WRITER = 5_000;
+
+    private static final int QUESTIONS = 40;
+
+    @Test
+    void concurrentSubmissionsMatchSequentialAggregate() throws Exception {
+        TestStatisticsService service = new TestStatisticsService(null, LEADERBOARD_SIZE);
+        service.markLoaded(new ReplayedResultIds());
+
+        AtomicLong ids = new AtomicLong();
+        Queue<Submission> all = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<String> inconsistencies = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < SUBMISSIONS_PER_WRITER; i++) {
+                    long userId = random.nextLong(1, 500);
+                    int correct = random.nextInt(QUESTIONS + 1);
+                    double percentage = (double) correct / QUESTIONS * 100;
+                    Submission submission = new Submission(ids.incrementAndGet(), userId, correct, percentage);
+                    all.add(submission);
+                    service.record(TEST_ID, submission.resultId(), userId, "user" + userId, correct, percentage);
+                }
+                return null;
+            }));
+        }
+        // Readers only ever see published snapshots; each must describe one consistent set of attempts
+        Future<?> publisher = pool.submit(() -> {
+            start.await();
+            while (writing.get()) {
+                service.publishSnapshots();
+                checkConsistent(service, inconsistencies);
+            }
+            return null;
+        });
+        Future<?> reader = pool.submit(() -> {
+            start.await();
+            while (writing.get()) {
+                checkConsistent(service, inconsistencies);
+            }
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        publisher.get(30, TimeUnit.SECONDS);
+        reader.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        service.publishSnapshots();
+
+        assertEquals(List.of(), inconsistencies);
+        assertMatchesBruteForce(new ArrayList<>(all), service.getStatistics(TEST_ID), service.getLeaderboard(TEST_ID));
+    }
+
+    @Test
+    void submissionsDuringStartupReplayAreCountedOnce() {
+        TestStatisticsService service = new TestStatisticsService(null, LEADERBOARD_SIZE);
+
+        // The replay read results 1 and 3; result 2 committed after the replay passed it, so a lower
+        // id than the highest replayed one must still be applied
+        ReplayedResultIds replayedIds = new ReplayedResultIds();
+        replayedIds.add(1);
+        replayedIds.add(3);
+        service.record(TEST_ID, 3, 8L, "replayed", 40, 100);
+        service.record(TEST_ID, 2, 7L, "late", 20, 50);
+        service.markLoaded(replayedIds);
+        // Read by the replay, but its record() call only arrives now
+        service.record(TEST_ID, 1, 6L, "slow", 0, 0);
+        service.record(TEST_ID, 4, 9L, "live", 10, 25);
+        service.publishSnapshots();
+
+        TestStatisticsDTO statistics = service.getStatistics(TEST_ID);
+        assertEquals(2, statistics.getAttempts());
+        assertEquals(37.5, statistics.getMeanPercentage(), 1e-9);
+        assertEquals(List.of(2L, 4L), service.getLeaderboard(TEST_ID).stream()
+                .map(LeaderboardEntryDTO::getResultId).toList());
+    }
+
+    @Test
+    void unknownTestHasEmptyStatistics() {
+        TestStatisticsService service = new TestStatisticsService(null, LEADERBOARD_SIZE);
+        service.markLoaded(new ReplayedResultIds());
+
+        TestStatisticsDTO statistics = service.getStatistics(42L);
+        assertEquals(0, statistics.getAttempts());
+        assertEquals(10, statistics.getHistogram().size());
+        assertTrue(service.getLeaderboard(42L).isEmpty());
+    }
+
+    // The two reads may straddle a publish; snapshots only grow, so read the leaderboard first
+    private static void checkConsistent(TestStatisticsService service, List<String> inconsistencies) {
+        List<LeaderboardEntryDTO> leaderboard = service.getLeaderboard(TEST_ID);
+        TestStatisticsDTO statistics = service.getStatistics(TEST_ID);
+        long histogramTotal = statistics.getHistogram().stream().mapToLong(Long::longValue).sum();
+        if (histogramTotal != statistics.getAttempts()) {
+            inconsistencies.add("histogram " + histogramTotal + " != attempts " + statistics.getAttempts());
+        }
+        if (statistics.getAttempts() > 0 && !(statistics.getMinPercentage() <= statistics.getP25Percentage()
+                && statistics.getP25Percentage() <= statistics.getMedianPercentage()
+                && statistics.getMedianPercentage() <= statistics.getP75Percentage()
+                && statistics.getP75Percentage() <= statistics.getP90Percentage()
+                && statistics.getP90Percentage() <= statistics.getP99Percentage()
+                && statistics.getP99Percentage() <= statistics.getMaxPercentage())) {
+            inconsistencies.add("percentiles out of order: " + statistics);
+        }
+        if (leaderboard.size() > Math.min(LEADERBOARD_SIZE, statistics.getAttempts())) {
+            inconsistencies.add("leaderboard larger than attempts: " + leaderboard.size());
+        }
+    }
+
+    private static void assertMatchesBruteForce(List<Submission> all, TestStatisticsDTO statistics,
+                                                List<LeaderboardEntryDTO> leaderboard) {
+        int n = all.size();
+        assertEquals((long) WRITERS * SUBMISSIONS_PER_WRITER, n);
+        assertEquals(n, statistics.getAttempts());
+        assertEquals(all.stream().mapToDouble(Submission::percentage).average().orElseThrow(),
+                statistics.getMeanPercentage(), 1e-6);
+
+        int[] sorted = all.stream().mapToInt(s -> TestScoreStats.bucketOf(s.percentage())).sorted().toArray();
+        assertEquals(sorted[0], statistics.getMinPercentage());
+        assertEquals(sorted[n - 1], statistics.getMaxPercentage());
+        assertEquals(nearestRank(sorted, 25), statistics.getP25Percentage());
+        assertEquals(nearestRank(sorted, 50), statistics.getMedianPercentage());
+        assertEquals(nearestRank(sorted, 75), statistics.getP75Percentage());
+        assertEquals(nearestRank(sorted, 90), statistics.getP90Percentage());
+        assertEquals(nearestRank(sorted, 99), statistics.getP99Percentage());
+
+        long[] histogram = new long[10];
+        for (int bucket : sorted) {
+            histogram[Math.min(bucket / 10, 9)]++;
+        }
+        assertEquals(Arrays.stream(histogram).boxed().toList(), statistics.getHistogram());
+
+        Comparator<Submission> ranking = Comparator.comparingDouble(Submission::percentage).reversed()
+                .thenComparingLong(Submission::resultId);
+        List<Long> expectedTop = all.stream()
+                .collect(Collectors.groupingBy(Submission::userId,
+                        Collectors.collectingAndThen(Collectors.minBy(ranking), Optional::orElseThrow)))
+                .values().stream()
+                .sorted(ranking)
+                .limit(LEADERBOARD_SIZE)
+                .map(Submission::resultId)
+                .toList();
+        assertEquals(expectedTop, leaderboard.stream().map(LeaderboardEntryDTO::getResultId).toList());
+        for (int i = 0; i < leaderboard.size(); i++) {
+            assertEquals(i + 1, leaderboard.get(i).getRank());
+        }
+    }
+
+    private static int nearestRank(int[] sorted, int p) {
+        int rank = (int) Math.max(1, Math.ceil(p / 100.0 * sorted.length));
+        return sorted[rank - 1];
+    }
+
+    private record Submission(long resultId, long userId, int correctAnswers, double percentage) {
+    }
+}
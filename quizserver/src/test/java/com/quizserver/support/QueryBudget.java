@@ -0,0 +1,54 @@
+package com.quizserver.support;
+
+import com.quizserver.config.QueryCountFilter;
+import com.quizserver.config.QueryCounter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Assertions on the number of SQL statements Hibernate issues, counted by {@link QueryCounter}.
+ * A lazy association touched once per row (N+1) pushes the count past the budget and fails the test.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    /**
+     * MockMvc matcher on the X-Query-Count header; needs quiz.query-count.header=true (test profile).
+     */
+    public static ResultMatcher atMost(int maxQueries) {
+        return result -> {
+            String header = result.getResponse().getHeader(QueryCountFilter.HEADER);
+            assertNotNull(header, "No " + QueryCountFilter.HEADER + " header, is quiz.query-count.header enabled?");
+            assertWithinBudget(Integer.parseInt(header), maxQueries,
+                    result.getRequest().getMethod() + " " + result.getRequest().getRequestURI());
+        };
+    }
+
+    /**
+     * Runs {@code action} on the calling thread and fails if it issued more than {@code maxQueries}
+     * statements. For service-level checks outside a request.
+     */
+    public static <T> T atMost(int maxQueries, Callable<T> action) throws Exception {
+        QueryCounter.start();
+        T result;
+        int queries;
+        try {
+            result = action.call();
+        } finally {
+            queries = QueryCounter.stop();
+        }
+        assertWithinBudget(queries, maxQueries, "action");
+        return result;
+    }
+
+    private static void assertWithinBudget(int queries, int maxQueries, String what) {
+        assertTrue(queries <= maxQueries,
+                () -> what + " issued " + queries + " SQL statements, budget is " + maxQueries);
+    }
+}